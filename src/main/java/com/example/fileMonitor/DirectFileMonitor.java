@@ -1,13 +1,14 @@
 package com.example.fileMonitor;
 
+import com.example.fileMonitor.pipeline.FileIngestPipeline;
 import com.example.fileMonitor.service.FileMonitorService;
-import com.example.utils.RegexExample;
-import com.example.utils.modal.ExcelReadModal;
+import com.example.fileMonitor.watch.PollingFileScanner;
+import com.example.fileMonitor.watch.ReconcileScanner;
+import com.example.fileMonitor.watch.StartupScanner;
+import com.example.fileMonitor.watch.WatchRegistry;
 import com.example.fileMonitor.modal.FileMonitor;
-import com.example.utils.modal.ReadFileModal;
 import com.example.excel.ExcelExportService;
 import com.example.ftp.service.FtpService;
-import com.example.utils.ReadFileUtil;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
@@ -18,11 +19,9 @@ import javax.annotation.PostConstruct;
 import javax.annotation.PreDestroy;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.sql.SQLException;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.Date;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
@@ -45,11 +44,27 @@ public class DirectFileMonitor {
     private ExcelExportService excelExportService;
 
     @Autowired
-    ReadFileUtil readFileUtil;
+    private FileIngestPipeline fileIngestPipeline;
+
+    @Autowired
+    private ReconcileScanner reconcileScanner;
+
+    @Autowired
+    private StartupScanner startupScanner;
+
+    @Autowired
+    private PollingFileScanner pollingFileScanner;
 
     @Value("${file.monitor.path}")
     private String monitorPath;
 
+    @Value("${file.monitor.recursive:true}")
+    private boolean recursive;
+
+    //监控方式：watch 使用文件系统事件，poll 周期轮询（网络文件系统收不到事件时使用）
+    @Value("${file.monitor.mode:watch}")
+    private String monitorMode;
+
     @Value("${file.monitor.auto-start}")
     private boolean autoStart;
 
@@ -59,8 +74,8 @@ public class DirectFileMonitor {
     @Value("${excel.export.schedule.cron}")
     private String excelExportCron;
 
-    //文件系统监控服务
-    private WatchService watchService;
+    //文件系统监控服务及 WatchKey -> 目录 注册表
+    private WatchRegistry watchRegistry;
     private volatile boolean running = false;
 
     @PostConstruct
@@ -93,36 +108,45 @@ public class DirectFileMonitor {
     private void startFileMonitoring() {
         try {
             /**
-             * 使用Path获取文件系统路径
+             * 使用Path获取文件系统路径，多个监控目录以逗号分隔
              */
-            Path monitoredPath = Paths.get(monitorPath);
-
-            // 创建监控目录（如果不存在）
-            if (!Files.exists(monitoredPath)) {
-                Files.createDirectories(monitoredPath);
-                log.info("startFileMonitoring 已创建监控目录: {}", monitorPath);
+            List<Path> monitoredPaths = new ArrayList<>();
+            for (String path : monitorPath.split(",")) {
+                if (!path.trim().isEmpty()) {
+                    monitoredPaths.add(Paths.get(path.trim()).toAbsolutePath().normalize());
+                }
+            }
+            for (Path monitoredPath : monitoredPaths) {
+                // 创建监控目录（如果不存在）
+                if (!Files.exists(monitoredPath)) {
+                    Files.createDirectories(monitoredPath);
+                    log.info("startFileMonitoring 已创建监控目录: {}", monitoredPath);
+                }
             }
 
-            //获取文件系统监控服务，用于实时监听目录中文件和子目录的变化
-            watchService = FileSystems.getDefault().newWatchService();
+            fileIngestPipeline.setWatchRoots(monitoredPaths);
+            running = true;
 
-            /**
-             * ENTRY_CREATE 新文件/目录创建
-             * ENTRY_DELETE 文件/目录删除
-             * ENTRY_MODIFY 文件/目录修改
-             * OVERFLOW     事件溢出(文件丢失)
-             */
-            monitoredPath.register(watchService,
-                    StandardWatchEventKinds.ENTRY_CREATE,
-                    StandardWatchEventKinds.ENTRY_DELETE,
-                    StandardWatchEventKinds.ENTRY_MODIFY);
+            if ("poll".equalsIgnoreCase(monitorMode)) {
+                log.info("startFileMonitoring 使用轮询方式监控目录");
+                //先建立轮询索引再做启动扫描，两者之间新增的文件由轮询发现
+                pollingFileScanner.start(monitoredPaths);
+                startStartupScan(monitoredPaths);
+                return;
+            }
 
-            running = true;
+            //获取文件系统监控服务，用于实时监听目录中文件和子目录的变化
+            watchRegistry = new WatchRegistry(recursive);
+            for (Path monitoredPath : monitoredPaths) {
+                watchRegistry.addRoot(monitoredPath);
+            }
+            //事件溢出期间新建的子目录没有收到创建事件，对账遍历时补注册
+            reconcileScanner.setDirectoryHandler(this::registerMissedDirectory);
 
             // 启动监控线程
             Thread monitorThread = new Thread(() -> {
                 log.info("startFileMonitoring 文件监控线程启动...");
-                monitorDirectory(monitoredPath);
+                monitorDirectory();
             });
 
             monitorThread.setName("File-Monitor-Thread");
@@ -130,184 +154,95 @@ public class DirectFileMonitor {
             monitorThread.start();
 
             // 初始扫描目录中的文件
-            scanExistingFiles(monitoredPath);
+            startStartupScan(monitoredPaths);
         } catch (Exception e) {
             log.error("startFileMonitoring 文件监控启动失败", e);
             throw new RuntimeException("文件监控启动失败", e);
         }
     }
 
-    private void monitorDirectory(Path monitoredPath) {
+    /**
+     * 后台扫描已有文件，流水线积压时扫描会等待，不阻塞应用启动
+     */
+    private void startStartupScan(List<Path> monitoredPaths) {
+        Thread scanThread = new Thread(() -> startupScanner.scan(monitoredPaths), "File-Startup-Scan");
+        scanThread.setDaemon(true);
+        scanThread.start();
+    }
+
+    private void monitorDirectory() {
         while (running) {
             try {
                 //创建轮询，设置超时时间1秒
-                WatchKey key = watchService.poll(1, TimeUnit.SECONDS);
+                WatchKey key = watchRegistry.poll(1, TimeUnit.SECONDS);
                 if (key == null) {
                     continue;
                 }
+                //事件所在目录，目录已注销时忽略
+                Path dir = watchRegistry.resolve(key);
+                if (dir == null) {
+                    key.cancel();
+                    continue;
+                }
                 for (WatchEvent<?> event : key.pollEvents()) {
                     WatchEvent.Kind<?> kind = event.kind();
-                    Path fileName = (Path) event.context();
-                    Path fullPath = monitoredPath.resolve(fileName);
 
                     if (kind == StandardWatchEventKinds.OVERFLOW) {
-                        log.warn("monitorDirectory 监控事件溢出");
+                        //事件已丢失，交给对账扫描比对目录与快照找回
+                        log.warn("monitorDirectory 监控事件溢出，安排对账扫描: {}", dir);
+                        reconcileScanner.requestReconcile(dir);
+                        continue;
+                    }
+
+                    Path fileName = (Path) event.context();
+                    Path fullPath = dir.resolve(fileName);
+
+                    if (kind == StandardWatchEventKinds.ENTRY_DELETE && watchRegistry.isWatched(fullPath)) {
+                        int count = watchRegistry.unregisterTree(fullPath);
+                        log.info("monitorDirectory 目录已删除，注销 {} 个监控目录: {}", count, fullPath);
                         continue;
                     }
 
                     if (Files.isDirectory(fullPath)) {
-                        log.debug("monitorDirectory 跳过目录: {}", fileName);
+                        if (kind == StandardWatchEventKinds.ENTRY_CREATE && recursive) {
+                            //新建子目录：注册监控，注册前已写入的文件补投新增事件
+                            int count = watchRegistry.registerTree(fullPath,
+                                    file -> fileIngestPipeline.submit(StandardWatchEventKinds.ENTRY_CREATE, file));
+                            log.info("monitorDirectory 新增目录，注册 {} 个监控目录: {}", count, fullPath);
+                        } else {
+                            log.debug("monitorDirectory 跳过目录: {}", fileName);
+                        }
                         continue;
                     }
-                    //将文件内容写入数据库中，且同步将文件通过FTP上传至目标服务器中
-                    processFileEvent(kind, fullPath);
+                    //只投递事件，解析、入库与FTP上传由采集流水线异步完成
+                    fileIngestPipeline.submit(kind, fullPath);
                 }
                 //重置key，继续监控
                 boolean valid = key.reset();
                 if (!valid) {
-                    log.error("monitorDirectory 监控Key失效，尝试重新注册...");
-                    reRegisterWatchService(monitoredPath);
+                    //目录已被删除或无法访问
+                    watchRegistry.unregisterTree(dir);
+                    if (watchRegistry.isRoot(dir)) {
+                        log.error("monitorDirectory 监控根目录失效，尝试重新注册: {}", dir);
+                        reRegisterRoot(dir);
+                    } else {
+                        log.info("monitorDirectory 监控目录失效，已注销: {}", dir);
+                    }
                 }
 
             } catch (InterruptedException e) {
                 Thread.currentThread().interrupt();
                 log.warn("monitorDirectory 文件监控被中断");
                 break;
+            } catch (ClosedWatchServiceException e) {
+                log.info("monitorDirectory 监控服务已关闭");
+                break;
             } catch (Exception e) {
                 log.error("monitorDirectory 文件监控异常", e);
             }
         }
     }
 
-    /**
-     * 将文件内容写入数据库中，且同步将文件通过FTP上传至目标服务器中
-     * @param kind
-     * @param filePath
-     */
-    private void processFileEvent(WatchEvent.Kind<?> kind, Path filePath) {
-        String action = getEventAction(kind);
-        log.info("[{}] 文件: {}", action, filePath.getFileName());
-        try {
-            switch (kind.name()) {
-                case "ENTRY_CREATE"://判断目标文件夹传入新文件
-                    handleFileCreate(filePath, "processFileEvent", 0);
-                    break;
-                case "ENTRY_MODIFY"://判断修改文件
-                    handleFileModify(filePath);
-                    break;
-                case "ENTRY_DELETE"://判断删除文件
-                    handleFileDelete(filePath);
-                    break;
-            }
-        } catch (IOException | SQLException e) {
-            log.error("processFileEvent 处理文件事件失败: {}", filePath, e);
-        }
-    }
-
-    private void handleFileCreate(Path filePath, String type, int handleCount) throws IOException {
-        log.info("run handleFileCreate  type：{}", type);
-        try {
-            if(matches(filePath)){
-                // 等待文件写入完成（根据文件大小动态调整等待时间）
-                long fileSize = Files.size(filePath);
-                long waitTime = Math.min(Math.max(fileSize / 1024, 100), 5000); // 100ms到5秒
-                log.info("handleFileCreate"+handleCount+" 文件写入时长 waitTime = "+waitTime);
-                Thread.sleep(waitTime);
-                ReadFileModal readFileModal = readFileContent(filePath);
-                String content = readFileModal.getReadInstructions();
-                log.info("handleFileCreate"+handleCount+" content = "+content);
-                FileMonitor fileMonitor = new FileMonitor();
-                fileMonitor.setFileName(filePath.getFileName().toString());
-                fileMonitor.setFilePath(filePath.toAbsolutePath().toString());
-                fileMonitor.setFileSize(Files.size(filePath));
-                fileMonitor.setFileContent(content);
-                fileMonitor.setFileType(getFileExtension(filePath));
-                fileMonitor.setLastModified(new Date(Files.getLastModifiedTime(filePath).toMillis()));
-                fileMonitor.setStatus("ACTIVE");
-                fileMonitor.setIsExported(false);
-                fileMonitor.setFtpUploaded(false);
-                log.info("handleFileCreate handleCount[{}] fileMonitor fileName: {} | FilePath: {} | FileSize: {} | fileType: {} | LastModified: {}", handleCount, fileMonitor.getFileName(), fileMonitor.getFilePath(), fileMonitor.getFileSize(), fileMonitor.getFileType(), fileMonitor.getLastModified());
-                fileMonitorService.saveFileMonitor(fileMonitor);
-                log.info("handleFileCreate"+handleCount+" 已保存到数据库，ID: {}", fileMonitor.getId());
-                // 自动上传到FTP
-                boolean uploaded = ftpService.uploadFile(filePath.toFile());
-                if (uploaded) {
-                    fileMonitorService.markAsUploaded(fileMonitor.getId());
-                    log.info("文件已上传到FTP服务器");
-                }
-            }
-        } catch (Exception e) {
-            log.error("handleFileCreate"+handleCount+" 处理新增文件失败: {}", filePath, e);
-        }
-    }
-
-    private void handleFileModify(Path filePath) throws IOException, SQLException {
-        log.info("run handleFileModify");
-        if(matches(filePath)){
-            ReadFileModal readFileModal = readFileContent(filePath);
-            String content = readFileModal.getReadInstructions();
-            log.info("handleFileModify content = "+content);
-            FileMonitor fileMonitor = new FileMonitor();
-            fileMonitor.setFilePath(filePath.toAbsolutePath().toString());
-            fileMonitor.setFileSize(Files.size(filePath));
-            fileMonitor.setFileContent(content);
-            fileMonitor.setLastModified(new Date(Files.getLastModifiedTime(filePath).toMillis()));
-            log.info("handleFileModify fileMonitor FilePath: {} | FileSize: {} | LastModified: {}", fileMonitor.getFilePath(), fileMonitor.getFileSize(), fileMonitor.getLastModified());
-            int updated = fileMonitorService.updateFileContent(fileMonitor);
-            if (updated > 0) {
-                log.info("文件内容已更新");
-                // 重新上传到FTP
-                boolean uploaded = ftpService.uploadFile(filePath.toFile());
-                if (uploaded) {
-                    // 更新上传状态（需要先查询ID）
-                    List<FileMonitor> files = fileMonitorService.selectByFilePath(filePath.toString());
-                    if (!files.isEmpty()) {
-                        fileMonitorService.markAsUploaded(files.get(0).getId());
-                    }
-                }
-            }
-        }
-    }
-
-    private void handleFileDelete(Path filePath) throws SQLException{
-        log.info("run handleFileDelete fileName: {}", filePath.getFileName());
-        if(matches(filePath)){
-            int deleted = fileMonitorService.markAsDeleted(filePath.toAbsolutePath().toString());
-            if (deleted > 0) {
-                log.info("handleFileDelete 文件标记为已删除");
-            }
-        }
-    }
-
-    private void scanExistingFiles(Path monitoredPath) {
-        log.info("scanExistingFiles 开始扫描目录中的现有文件...");
-        int count = 0;
-        try {
-            Files.walk(monitoredPath, 1)
-                    .filter(Files::isRegularFile)
-                    .forEach(file -> {
-                        try {
-                            handleFileCreate(file, "scanExistingFiles", 1);
-                        } catch (IOException e) {
-                            log.error("scanExistingFiles 扫描文件失败: {}", file, e);
-                        }
-                        try {
-                            // 检查是否已记录
-                            List<FileMonitor> existing = fileMonitorService.selectByFilePath(file.toString());
-                            if (existing.isEmpty()) {
-                                handleFileCreate(file, "scanExistingFiles", 1);
-                            }
-                        } catch (Exception e) {
-                            log.error("scanExistingFiles 扫描文件失败: {}", file, e);
-                        }
-                    });
-
-            log.info("scanExistingFiles 目录扫描完成，共处理 {} 个文件", count);
-        } catch (Exception e) {
-            log.error("scanExistingFiles 扫描目录失败", e);
-        }
-    }
-
     private void scheduleExcelExport() {
         log.info("scheduleExcelExport 配置Excel定时导出，计划: {}", excelExportCron);
 
@@ -404,111 +339,39 @@ public class DirectFileMonitor {
 
     public void stopFileMonitoring() {
         running = false;
+        pollingFileScanner.stop();
         try {
-            if (watchService != null) {
-                watchService.close();
+            if (watchRegistry != null) {
+                watchRegistry.close();
             }
         } catch (Exception e) {
             log.error("stopFileMonitoring 关闭监控服务失败", e);
         }
     }
 
-    private void reRegisterWatchService(Path monitoredPath) {
+    private void registerMissedDirectory(Path dir) {
+        if (!recursive && !watchRegistry.isRoot(dir)) {
+            return;
+        }
         try {
-            if (watchService != null) {
-                watchService.close();
+            if (watchRegistry.registerDirectory(dir)) {
+                log.info("registerMissedDirectory 对账发现未监控的目录，已注册: {}", dir);
             }
-            watchService = FileSystems.getDefault().newWatchService();
-            monitoredPath.register(watchService,
-                    StandardWatchEventKinds.ENTRY_CREATE,
-                    StandardWatchEventKinds.ENTRY_DELETE,
-                    StandardWatchEventKinds.ENTRY_MODIFY);
-            log.info("reRegisterWatchService 监控服务重新注册成功");
-        } catch (Exception e) {
-            log.error("reRegisterWatchService 重新注册监控服务失败", e);
+        } catch (IOException e) {
+            log.warn("registerMissedDirectory 注册监控目录失败: {}", dir, e);
         }
     }
 
-    /**
-     * 读取文件内容
-     * @param filePath
-     * @return
-     * @throws IOException
-     */
-    private ReadFileModal readFileContent(Path filePath) throws IOException {
-        ReadFileModal readFileModal = new ReadFileModal();
-        String fileName = filePath.getFileName().toString().toLowerCase();
-        if (fileName.endsWith(".txt") || fileName.endsWith(".log") ||
-                fileName.endsWith(".csv") || fileName.endsWith(".xml") ||
-                fileName.endsWith(".json") || fileName.endsWith(".properties") ||
-                fileName.endsWith(".java") || fileName.endsWith(".sql") ||
-                fileName.endsWith(".html") || fileName.endsWith(".htm") ||
-                fileName.endsWith(".js") || fileName.endsWith(".css")) {// 文本文件直接读取
-            readFileModal.setReadInstructions(new String(Files.readAllBytes(filePath), StandardCharsets.UTF_8));
-            return readFileModal;
-        }else if (fileName.endsWith(".xlsx") || fileName.endsWith(".xls")) {// Excel文件特殊处理
-            ExcelReadModal excelReadModal = new ExcelReadModal();
-            excelReadModal = readFileUtil.readFile(filePath.toFile(), excelReadModal);
-            log.info("readFileContent excelReadModal.toString() {}", excelReadModal.toString());
-            readFileModal.setReadInstructions("读取Excel内容");
-            readFileModal.setExcelReadModal(excelReadModal);
-            return readFileModal;
-        }else if (fileName.endsWith(".doc") || fileName.endsWith(".docx")) {// Word文件特殊处理
-            readFileModal.setReadInstructions("[Word文件内容无法直接显示]");
-            return readFileModal;
-        }else if (fileName.endsWith(".pdf")) {// PDF文件特殊处理
-            readFileModal.setReadInstructions("[PDF文件内容无法直接显示]");
-            return readFileModal;
-        }else if (fileName.endsWith(".jpg") || fileName.endsWith(".jpeg") ||
-                fileName.endsWith(".png") || fileName.endsWith(".gif") ||
-                fileName.endsWith(".bmp")) {// 图片文件
-            readFileModal.setReadInstructions("[图片文件]");
-            return readFileModal;
-        }else {// 其他文件作为二进制处理
-            byte[] bytes = Files.readAllBytes(filePath);
-            if (bytes.length > 10 * 1024 * 1024) { // 大于10MB不保存完整内容
-                readFileModal.setReadInstructions("[文件过大，仅保存基本信息]");
-                return readFileModal;
+    private void reRegisterRoot(Path root) {
+        try {
+            if (!Files.exists(root)) {
+                Files.createDirectories(root);
             }
-            readFileModal.setReadInstructions(Base64.getEncoder().encodeToString(bytes));
-            return readFileModal;
-        }
-    }
-
-    private String getFileExtension(Path filePath) {
-        String fileName = filePath.getFileName().toString();
-        int dotIndex = fileName.lastIndexOf('.');
-        return dotIndex > 0 ? fileName.substring(dotIndex + 1).toLowerCase() : "";
-    }
-
-    private String getEventAction(WatchEvent.Kind<?> kind) {
-        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
-            return "新增";
-        } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
-            return "修改";
-        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
-            return "删除";
-        }
-        return "未知";
-    }
-
-    /**
-     * 设置文档名称匹配规则
-     * @param filePath
-     * @return
-     */
-    private boolean matches(Path filePath){
-        String fileName = filePath.getFileName().toString();
-        log.info("matches fileName:{}", fileName);
-        if(null != fileName && fileName != "" && !"".equals(fileName)){
-            //匹配文件名称符合规则的文件
-            List<String> patterns = new ArrayList<>();
-            patterns.add(".*统计表\\.xlsx");
-            RegexExample regexExample = new RegexExample();
-            regexExample.setPatterns(patterns);
-            return regexExample.matches(fileName, 0);
-        }else {
-            return false;
+            int count = watchRegistry.registerTree(root,
+                    file -> fileIngestPipeline.submit(StandardWatchEventKinds.ENTRY_CREATE, file));
+            log.info("reRegisterRoot 监控目录重新注册成功: {}，共 {} 个目录", root, count);
+        } catch (Exception e) {
+            log.error("reRegisterRoot 重新注册监控目录失败: {}", root, e);
         }
     }
 }
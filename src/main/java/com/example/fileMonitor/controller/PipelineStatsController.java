@@ -0,0 +1,27 @@
+package com.example.fileMonitor.controller;
+
+import com.example.fileMonitor.modal.PipelineStats;
+import com.example.fileMonitor.pipeline.FileIngestPipeline;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 采集流水线运行状态查询
+ */
+@RestController
+@RequestMapping("/pipeline")
+public class PipelineStatsController {
+
+    @Autowired
+    private FileIngestPipeline fileIngestPipeline;
+
+    /**
+     * 队列深度、积压超限与在途字节数等统计
+     */
+    @GetMapping("/stats")
+    public PipelineStats stats() {
+        return fileIngestPipeline.getStats();
+    }
+}
@@ -0,0 +1,16 @@
+package com.example.fileMonitor.dao;
+
+import com.example.fileMonitor.modal.FileMonitorChunk;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.sql.SQLException;
+
+@Mapper
+public interface FileMonitorChunkDao {
+    int saveChunk(FileMonitorChunk chunk) throws SQLException;
+
+    int deleteByFileId(@Param("fileId") Long fileId) throws SQLException;
+
+    Integer selectMaxChunkIndex(@Param("fileId") Long fileId) throws SQLException;
+}
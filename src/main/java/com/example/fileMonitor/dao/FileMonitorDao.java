@@ -15,6 +15,8 @@ public interface FileMonitorDao {
 
     int updateFileContent(FileMonitor fileMonitor) throws SQLException;
 
+    int updateTailProgress(FileMonitor fileMonitor) throws SQLException;
+
     List<FileMonitor> selectNotUploaded() throws SQLException;
 
     int markAsUploaded(@Param("id") Long id) throws SQLException;
@@ -27,6 +29,8 @@ public interface FileMonitorDao {
 
     List<FileMonitor> selectByFilePath(@Param("filePath") String filePath) throws SQLException;
 
+    List<FileMonitor> selectByFilePaths(@Param("filePaths") List<String> filePaths) throws SQLException;
+
     int countActiveFiles() throws SQLException;
 
     int countUploadedFiles() throws SQLException;
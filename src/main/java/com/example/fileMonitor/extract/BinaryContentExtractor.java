@@ -0,0 +1,47 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.modal.Base64FileContent;
+import com.example.utils.modal.ReadFileModal;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * 其他文件按二进制处理：先按文件大小判断，不超过上限的在写入数据库时流式Base64编码保存，过大的文件只保存基本信息
+ * 没有对应扩展名、或文件头与扩展名不符时使用
+ */
+@Component
+public class BinaryContentExtractor implements ContentExtractor {
+
+    @Value("${file.monitor.binary.max-size:10485760}")
+    private long maxSize;
+
+    @Override
+    public String getName() {
+        return "binary";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return Collections.emptySet();
+    }
+
+    @Override
+    public ExtractCost getCost() {
+        return ExtractCost.LIGHT;
+    }
+
+    @Override
+    public ReadFileModal extract(FileContentSource source) {
+        ReadFileModal readFileModal = new ReadFileModal();
+        if (source.getSize() > maxSize) { // 超过上限不保存完整内容，也不读取文件
+            readFileModal.setReadInstructions("[文件过大，仅保存基本信息]");
+            return readFileModal;
+        }
+        readFileModal.setReadInstructions("[二进制文件，Base64编码保存]");
+        readFileModal.setBinaryContent(new Base64FileContent(source.getPath(), source.getSize()));
+        return readFileModal;
+    }
+}
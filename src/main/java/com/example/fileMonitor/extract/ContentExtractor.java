@@ -0,0 +1,42 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.modal.ReadFileModal;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * 文件内容抽取器
+ * 实现类注册为Spring组件后由 {@link ContentExtractorRegistry} 按扩展名收集，
+ * 扩展名对应的抽取器不认可文件头时改用二进制抽取器
+ */
+public interface ContentExtractor {
+
+    /**
+     * 抽取器名称，用于日志
+     */
+    String getName();
+
+    /**
+     * 处理的扩展名（小写，不含点）
+     */
+    Set<String> getExtensions();
+
+    /**
+     * 抽取开销
+     */
+    ExtractCost getCost();
+
+    /**
+     * 根据文件头判断内容是否确实为本抽取器处理的格式，默认不检查
+     * @param header 文件开头的字节，文件较小时长度小于头部缓冲区
+     */
+    default boolean accepts(byte[] header) {
+        return true;
+    }
+
+    /**
+     * 抽取内容，文件头和文件内容通过 source 共享一次读取
+     */
+    ReadFileModal extract(FileContentSource source) throws IOException;
+}
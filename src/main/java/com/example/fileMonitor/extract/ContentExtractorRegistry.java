@@ -0,0 +1,71 @@
+package com.example.fileMonitor.extract;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 内容抽取器注册表
+ * 按扩展名选择抽取器，再用文件头确认；扩展名未注册或文件头不符时使用二进制抽取器
+ */
+@Component
+@Slf4j
+public class ContentExtractorRegistry {
+
+    @Autowired
+    private List<ContentExtractor> extractors;
+
+    @Autowired
+    private BinaryContentExtractor binaryContentExtractor;
+
+    private final Map<String, ContentExtractor> byExtension = new HashMap<>();
+
+    @PostConstruct
+    public void init() {
+        for (ContentExtractor extractor : extractors) {
+            for (String extension : extractor.getExtensions()) {
+                ContentExtractor previous = byExtension.put(extension, extractor);
+                if (previous != null && previous != extractor) {
+                    throw new IllegalStateException("扩展名 " + extension + " 同时注册了抽取器 "
+                            + previous.getName() + " 和 " + extractor.getName());
+                }
+            }
+        }
+        log.info("init 内容抽取器已注册 {} 个，扩展名 {} 个", extractors.size(), byExtension.size());
+    }
+
+    /**
+     * 按扩展名选择抽取器（不读取文件），用于决定执行阶段
+     */
+    public ContentExtractor forPath(Path filePath) {
+        ContentExtractor extractor = byExtension.get(getExtension(filePath));
+        return extractor == null ? binaryContentExtractor : extractor;
+    }
+
+    /**
+     * 用已读取的文件头确认抽取器，不认可时改用二进制抽取器
+     */
+    public ContentExtractor confirm(ContentExtractor extractor, FileContentSource source) {
+        if (extractor.accepts(source.getHeader())) {
+            return extractor;
+        }
+        log.warn("confirm 文件内容与扩展名不符，按二进制处理: {}（{}）", source.getPath(), extractor.getName());
+        return binaryContentExtractor;
+    }
+
+    /**
+     * 小写扩展名，没有扩展名时返回空字符串
+     */
+    public static String getExtension(Path filePath) {
+        String fileName = filePath.getFileName().toString();
+        int dotIndex = fileName.lastIndexOf('.');
+        return dotIndex > 0 ? fileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT) : "";
+    }
+}
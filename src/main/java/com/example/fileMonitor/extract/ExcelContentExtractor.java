@@ -0,0 +1,63 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.ExcelValidator;
+import com.example.utils.ReadFileUtil;
+import com.example.utils.modal.ExcelReadModal;
+import com.example.utils.modal.ReadFileModal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Excel文件：按文件头识别 xls/xlsx 后解析
+ */
+@Component
+@Slf4j
+public class ExcelContentExtractor implements ContentExtractor {
+    private static final Set<String> EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList("xlsx", "xls")));
+
+    @Autowired
+    private ReadFileUtil readFileUtil;
+
+    @Override
+    public String getName() {
+        return "excel";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return EXTENSIONS;
+    }
+
+    @Override
+    public ExtractCost getCost() {
+        return ExtractCost.HEAVY;
+    }
+
+    @Override
+    public boolean accepts(byte[] header) {
+        return ExcelValidator.getExcelTypeByMagicNumber(header) != null;
+    }
+
+    @Override
+    public ReadFileModal extract(FileContentSource source) throws IOException {
+        ReadFileModal readFileModal = new ReadFileModal();
+        String excelType = ExcelValidator.getExcelTypeByMagicNumber(source.getHeader());
+        //按路径只读打开工作簿，POI按需随机读取，不经过内容流把整个文件读入内存
+        ExcelReadModal excelReadModal = readFileUtil.readExcel(source.getPath().toFile(), excelType, new ExcelReadModal());
+        log.info("extract 读取Excel工作表（行x列）: {}", excelReadModal.summary());
+        if (log.isDebugEnabled()) {
+            //完整内容会生成所有内容行，只在调试时输出
+            log.debug("extract excelReadModal.toString() {}", excelReadModal);
+        }
+        readFileModal.setReadInstructions("读取Excel内容");
+        readFileModal.setExcelReadModal(excelReadModal);
+        return readFileModal;
+    }
+}
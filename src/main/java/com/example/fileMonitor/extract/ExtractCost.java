@@ -0,0 +1,15 @@
+package com.example.fileMonitor.extract;
+
+/**
+ * 内容抽取的开销等级，流水线据此选择执行阶段
+ */
+public enum ExtractCost {
+    /**
+     * 顺序读取即可完成（文本、二进制、占位说明），在普通抽取阶段执行
+     */
+    LIGHT,
+    /**
+     * 需要解析整个文件结构、内存占用与文件大小相关（如Excel），在独立的限量阶段执行
+     */
+    HEAVY
+}
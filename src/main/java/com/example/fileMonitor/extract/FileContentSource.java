@@ -0,0 +1,83 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.FileAccess;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 抽取时对文件的一次打开
+ * 打开时按位置读取文件头用于格式识别，之后的内容流从同一个通道按位置读取，不重新打开文件
+ */
+public class FileContentSource implements Closeable {
+    public static final int HEADER_SIZE = 4096;
+
+    private final Path path;
+    private final long size;
+    private final FileChannel channel;
+    private final byte[] header;
+    private InputStream stream;
+
+    private FileContentSource(Path path, long size, FileChannel channel, byte[] header) {
+        this.path = path;
+        this.size = size;
+        this.channel = channel;
+        this.header = header;
+    }
+
+    /**
+     * 打开文件并读取文件头
+     * @param size 文件大小（取自已读取的文件属性）
+     */
+    public static FileContentSource open(Path path, long size) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            byte[] header = FileAccess.readHeader(channel, (int) Math.min(HEADER_SIZE, Math.max(size, 0)));
+            return new FileContentSource(path, size, channel, header);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * 文件开头的字节
+     */
+    public byte[] getHeader() {
+        return header;
+    }
+
+    /**
+     * 从文件开头读取的内容流，只能获取一次，随 source 关闭
+     */
+    public InputStream openStream() {
+        if (stream != null) {
+            throw new IllegalStateException("文件内容流已被读取: " + path);
+        }
+        stream = FileAccess.openStream(channel, 0, size);
+        return stream;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            if (stream != null) {
+                stream.close();
+            }
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.modal.ReadFileModal;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 暂不解析内容的文件类型（Word、PDF、图片），只记录说明，不读取文件
+ */
+@Component
+public class PlaceholderContentExtractor implements ContentExtractor {
+    private static final Map<String, String> INSTRUCTIONS;
+
+    static {
+        Map<String, String> instructions = new HashMap<>();
+        instructions.put("doc", "[Word文件内容无法直接显示]");
+        instructions.put("docx", "[Word文件内容无法直接显示]");
+        instructions.put("pdf", "[PDF文件内容无法直接显示]");
+        for (String image : new String[]{"jpg", "jpeg", "png", "gif", "bmp"}) {
+            instructions.put(image, "[图片文件]");
+        }
+        INSTRUCTIONS = Collections.unmodifiableMap(instructions);
+    }
+
+    @Override
+    public String getName() {
+        return "placeholder";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return INSTRUCTIONS.keySet();
+    }
+
+    @Override
+    public ExtractCost getCost() {
+        return ExtractCost.LIGHT;
+    }
+
+    @Override
+    public ReadFileModal extract(FileContentSource source) {
+        ReadFileModal readFileModal = new ReadFileModal();
+        readFileModal.setReadInstructions(INSTRUCTIONS.get(ContentExtractorRegistry.getExtension(source.getPath())));
+        return readFileModal;
+    }
+}
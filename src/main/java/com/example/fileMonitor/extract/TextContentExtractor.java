@@ -0,0 +1,61 @@
+package com.example.fileMonitor.extract;
+
+import com.example.utils.TextChunkReader;
+import com.example.utils.modal.ReadFileModal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * 文本文件：按UTF-8流式读取，只保留有限长度的预览
+ * 超过预览长度的文件按配置在持久化时分块保存全文，内存占用与文件大小无关
+ */
+@Component
+@Slf4j
+public class TextContentExtractor implements ContentExtractor {
+    private static final Set<String> EXTENSIONS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            "txt", "log", "csv", "xml", "json", "properties", "java", "sql", "html", "htm", "js", "css")));
+
+    @Autowired
+    private TextIngestProperties textIngestProperties;
+
+    @Override
+    public String getName() {
+        return "text";
+    }
+
+    @Override
+    public Set<String> getExtensions() {
+        return EXTENSIONS;
+    }
+
+    @Override
+    public ExtractCost getCost() {
+        return ExtractCost.LIGHT;
+    }
+
+    @Override
+    public ReadFileModal extract(FileContentSource source) throws IOException {
+        TextIngestProperties.TextLimits limits = textIngestProperties.resolve(
+                ContentExtractorRegistry.getExtension(source.getPath()));
+        ReadFileModal readFileModal = new ReadFileModal();
+        TextChunkReader reader = new TextChunkReader(source.openStream(), StandardCharsets.UTF_8, limits.getPreviewSize());
+        String preview = reader.next();
+        readFileModal.setReadInstructions(preview == null ? "" : preview);
+        if (reader.hasMore()) {
+            if (limits.getChunked() && source.getSize() <= limits.getMaxSize()) {
+                readFileModal.setChunkSize(limits.getChunkSize());
+            } else {
+                log.info("extract 文本超过预览长度 {}，只保存预览: {}", limits.getPreviewSize(), source.getPath());
+            }
+        }
+        return readFileModal;
+    }
+}
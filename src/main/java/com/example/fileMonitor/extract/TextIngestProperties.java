@@ -0,0 +1,47 @@
+package com.example.fileMonitor.extract;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 文本文件采集配置 file.monitor.text
+ * defaults 为默认限制，types 按扩展名覆盖其中的部分项
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.monitor.text")
+public class TextIngestProperties {
+    private TextLimits defaults = new TextLimits(65536, 65536, 1024L * 1024 * 1024, true);
+    private Map<String, TextLimits> types = new HashMap<>();
+
+    /**
+     * 扩展名对应的限制，未配置的项取默认值
+     */
+    public TextLimits resolve(String extension) {
+        TextLimits override = types.get(extension);
+        if (override == null) {
+            return defaults;
+        }
+        return new TextLimits(
+                override.getPreviewSize() != null ? override.getPreviewSize() : defaults.getPreviewSize(),
+                override.getChunkSize() != null ? override.getChunkSize() : defaults.getChunkSize(),
+                override.getMaxSize() != null ? override.getMaxSize() : defaults.getMaxSize(),
+                override.getChunked() != null ? override.getChunked() : defaults.getChunked());
+    }
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class TextLimits {
+        private Integer previewSize;    //file_content 中保存的预览长度（字符）
+        private Integer chunkSize;      //全文分块保存时每块的长度（字符）
+        private Long maxSize;           //超过该大小（字节）只保存预览，不保存全文
+        private Boolean chunked;        //是否将全文分块保存到 file_monitor_chunk
+    }
+}
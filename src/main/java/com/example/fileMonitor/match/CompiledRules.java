@@ -0,0 +1,355 @@
+package com.example.fileMonitor.match;
+
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * 编译后的一组规则（包含或排除）
+ * 只有单个文件名条件的规则合并为：扩展名集合、完整文件名集合、后缀表（按末字符分桶），其余正则逐个判断；
+ * 正则不拼接成一个：拼接后分组编号会错位（\1 等反向引用指向其他规则的分组），不带范围的 (?i) 等标志也会作用到之后的规则
+ * 带文件属性条件或多个条件的规则逐条判断
+ */
+class CompiledRules {
+    static final int NO_MATCH = 0;
+    static final int MATCH = 1;
+    static final int NEEDS_ATTRIBUTES = 2;
+
+    private static final String REGEX_META = "\\^$.|?*+()[]{}";
+    private static final String GLOB_META = "*?[]{}\\";
+
+    private final int ruleCount;
+    private final Set<String> extensions = new HashSet<>();
+    private final Set<String> names = new HashSet<>();
+    private final Map<Character, List<String>> suffixes = new HashMap<>();
+    private final List<Pattern> namePatterns = new ArrayList<>();
+    private final List<Pattern> pathPatterns = new ArrayList<>();
+    private final List<ConditionalRule> conditionalRules = new ArrayList<>();
+
+    CompiledRules(List<FileMatchRule> rules) {
+        this.ruleCount = rules == null ? 0 : rules.size();
+        if (rules != null) {
+            for (FileMatchRule rule : rules) {
+                int conditions = (rule.getGlob() != null ? 1 : 0) + (rule.getRegex() != null ? 1 : 0)
+                        + (rule.getExt() != null ? 1 : 0);
+                if (conditions != 1 || rule.hasAttributeConditions()) {
+                    conditionalRules.add(new ConditionalRule(rule));
+                } else if (rule.getExt() != null) {
+                    extensions.addAll(parseExtensions(rule.getExt()));
+                } else if (rule.getRegex() != null) {
+                    addRegex(rule.getRegex());
+                } else if (isPathGlob(rule.getGlob())) {
+                    pathPatterns.add(Pattern.compile(globToRegex(rule.getGlob())));
+                } else {
+                    addNameGlob(rule.getGlob());
+                }
+            }
+        }
+    }
+
+    boolean isEmpty() {
+        return ruleCount == 0;
+    }
+
+    /**
+     * 是否有规则需要按完整路径匹配（此时不能只按文件名缓存结果）
+     */
+    boolean usesPath() {
+        if (!pathPatterns.isEmpty()) {
+            return true;
+        }
+        for (ConditionalRule rule : conditionalRules) {
+            if (rule.pathPattern != null) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 只按文件名和路径判断
+     * @return MATCH、NO_MATCH，或 NEEDS_ATTRIBUTES（有带属性条件的规则名称匹配，需要读取文件属性再判断）
+     */
+    int matchName(String fileName, String path) {
+        if (matchesFast(fileName, path)) {
+            return MATCH;
+        }
+        int result = NO_MATCH;
+        for (ConditionalRule rule : conditionalRules) {
+            if (rule.matchesName(fileName, path)) {
+                if (!rule.rule.hasAttributeConditions()) {
+                    return MATCH;
+                }
+                result = NEEDS_ATTRIBUTES;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 带属性条件的规则是否匹配
+     */
+    boolean matchAttributes(String fileName, String path, BasicFileAttributes attributes, long now) {
+        for (ConditionalRule rule : conditionalRules) {
+            if (rule.rule.hasAttributeConditions() && rule.matchesName(fileName, path)
+                    && rule.matchesAttributes(attributes, now)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean matchesFast(String fileName, String path) {
+        if (!extensions.isEmpty()) {
+            String extension = extensionOf(fileName);
+            if (extension != null && extensions.contains(extension)) {
+                return true;
+            }
+        }
+        if (names.contains(fileName)) {
+            return true;
+        }
+        if (!suffixes.isEmpty() && !fileName.isEmpty()) {
+            List<String> bucket = suffixes.get(fileName.charAt(fileName.length() - 1));
+            if (bucket != null) {
+                for (String suffix : bucket) {
+                    if (fileName.endsWith(suffix)) {
+                        return true;
+                    }
+                }
+            }
+        }
+        for (Pattern pattern : namePatterns) {
+            if (pattern.matcher(fileName).matches()) {
+                return true;
+            }
+        }
+        for (Pattern pattern : pathPatterns) {
+            if (pattern.matcher(path).matches()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 正则为纯文本或 .*文本 时转为完整文件名或后缀比较
+     */
+    private void addRegex(String regex) {
+        boolean prefixed = regex.startsWith(".*");
+        String literal = regexLiteral(prefixed ? regex.substring(2) : regex);
+        if (literal == null || literal.isEmpty()) {
+            namePatterns.add(Pattern.compile(regex)); //配置错误时启动失败
+        } else if (prefixed) {
+            addSuffix(literal);
+        } else {
+            names.add(literal);
+        }
+    }
+
+    /**
+     * 通配符为纯文本或 *文本 时转为完整文件名或后缀比较
+     */
+    private void addNameGlob(String glob) {
+        boolean prefixed = glob.startsWith("*") && !glob.startsWith("**");
+        String rest = prefixed ? glob.substring(1) : glob;
+        if (!containsAny(rest, GLOB_META) && !rest.isEmpty()) {
+            if (prefixed) {
+                addSuffix(rest);
+            } else {
+                names.add(rest);
+            }
+        } else {
+            namePatterns.add(Pattern.compile(globToRegex(glob)));
+        }
+    }
+
+    private void addSuffix(String suffix) {
+        char last = suffix.charAt(suffix.length() - 1);
+        List<String> bucket = suffixes.get(last);
+        if (bucket == null) {
+            bucket = new ArrayList<>();
+            suffixes.put(last, bucket);
+        }
+        bucket.add(suffix);
+    }
+
+    static String extensionOf(String fileName) {
+        int dotIndex = fileName.lastIndexOf('.');
+        return dotIndex > 0 ? fileName.substring(dotIndex + 1).toLowerCase(Locale.ROOT) : null;
+    }
+
+    private static Set<String> parseExtensions(String ext) {
+        Set<String> result = new HashSet<>();
+        for (String item : ext.split(",")) {
+            String value = item.trim().toLowerCase(Locale.ROOT);
+            if (value.startsWith(".")) {
+                value = value.substring(1);
+            }
+            if (!value.isEmpty()) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static boolean isPathGlob(String glob) {
+        return glob.indexOf('/') >= 0;
+    }
+
+    /**
+     * 正则中只含普通字符和转义的符号时返回对应的文本，否则返回null
+     */
+    private static String regexLiteral(String regex) {
+        StringBuilder literal = new StringBuilder(regex.length());
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+                    return null; //\d、\Q 等
+                }
+                literal.append(regex.charAt(++i));
+            } else if (REGEX_META.indexOf(c) >= 0) {
+                return null;
+            } else {
+                literal.append(c);
+            }
+        }
+        return literal.toString();
+    }
+
+    private static boolean containsAny(String value, String chars) {
+        for (int i = 0; i < value.length(); i++) {
+            if (chars.indexOf(value.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 通配符转正则：* 不跨目录，** 跨目录，? 单个字符，[!..] 取反，{a,b} 多选
+     */
+    static String globToRegex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        boolean inGroup = false;
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            switch (c) {
+                case '*':
+                    if (i + 1 < glob.length() && glob.charAt(i + 1) == '*') {
+                        //**/ 可匹配零层目录
+                        if (i + 2 < glob.length() && glob.charAt(i + 2) == '/') {
+                            regex.append("(?:.*/)?");
+                            i += 2;
+                        } else {
+                            regex.append(".*");
+                            i++;
+                        }
+                    } else {
+                        regex.append("[^/]*");
+                    }
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[':
+                    int end = glob.indexOf(']', i + 1);
+                    if (end < 0) {
+                        regex.append("\\[");
+                        break;
+                    }
+                    String body = glob.substring(i + 1, end);
+                    regex.append('[');
+                    if (body.startsWith("!")) {
+                        regex.append('^');
+                        body = body.substring(1);
+                    }
+                    regex.append(body.replace("\\", "\\\\").replace("[", "\\[")).append(']');
+                    i = end;
+                    break;
+                case '{':
+                    regex.append("(?:");
+                    inGroup = true;
+                    break;
+                case '}':
+                    regex.append(inGroup ? ")" : "\\}");
+                    inGroup = false;
+                    break;
+                case ',':
+                    regex.append(inGroup ? "|" : ",");
+                    break;
+                case '\\':
+                    if (i + 1 < glob.length()) {
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(++i))));
+                    }
+                    break;
+                default:
+                    if (REGEX_META.indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+        }
+        return regex.toString();
+    }
+
+    /**
+     * 需要逐条判断的规则
+     */
+    private static class ConditionalRule {
+        private final FileMatchRule rule;
+        private final Set<String> extensions;
+        private final Pattern globPattern;
+        private final Pattern regexPattern;
+        private final Pattern pathPattern;
+
+        ConditionalRule(FileMatchRule rule) {
+            this.rule = rule;
+            this.extensions = rule.getExt() == null ? null : parseExtensions(rule.getExt());
+            Pattern glob = rule.getGlob() == null ? null : Pattern.compile(globToRegex(rule.getGlob()));
+            boolean pathGlob = rule.getGlob() != null && isPathGlob(rule.getGlob());
+            this.pathPattern = pathGlob ? glob : null;
+            //文件名同时需满足通配符和正则时分别判断，不拼接正则
+            this.globPattern = pathGlob ? null : glob;
+            this.regexPattern = rule.getRegex() == null ? null : Pattern.compile(rule.getRegex());
+        }
+
+        boolean matchesName(String fileName, String path) {
+            if (extensions != null) {
+                String extension = extensionOf(fileName);
+                if (extension == null || !extensions.contains(extension)) {
+                    return false;
+                }
+            }
+            if (globPattern != null && !globPattern.matcher(fileName).matches()) {
+                return false;
+            }
+            if (regexPattern != null && !regexPattern.matcher(fileName).matches()) {
+                return false;
+            }
+            return pathPattern == null || pathPattern.matcher(path).matches();
+        }
+
+        boolean matchesAttributes(BasicFileAttributes attributes, long now) {
+            long size = attributes.size();
+            if (rule.getMinSize() != null && size < rule.getMinSize()) {
+                return false;
+            }
+            if (rule.getMaxSize() != null && size > rule.getMaxSize()) {
+                return false;
+            }
+            long age = now - attributes.lastModifiedTime().toMillis();
+            if (rule.getMinAge() != null && age < rule.getMinAge()) {
+                return false;
+            }
+            return rule.getMaxAge() == null || age <= rule.getMaxAge();
+        }
+    }
+}
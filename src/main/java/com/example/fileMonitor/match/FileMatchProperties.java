@@ -0,0 +1,26 @@
+package com.example.fileMonitor.match;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 文件匹配规则配置 file.monitor.match
+ * 文件匹配任一包含规则、且不匹配任何排除规则时才处理；包含规则为空表示包含全部文件
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "file.monitor.match")
+public class FileMatchProperties {
+    private List<FileMatchRule> include = new ArrayList<>();   //包含规则
+    private List<FileMatchRule> exclude = new ArrayList<>();   //排除规则
+    private int cacheSize = 10000;                             //按文件名缓存匹配结果的数量，0表示不缓存
+
+    public FileMatchProperties() {
+        //未配置时保持原有规则：只处理统计表
+        include.add(FileMatchRule.regex(".*统计表\\.xlsx"));
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.fileMonitor.match;
+
+import lombok.Data;
+
+/**
+ * 文件匹配规则
+ * 同一条规则中配置的条件需全部满足；glob、regex、ext 都未配置时匹配任意文件名
+ */
+@Data
+public class FileMatchRule {
+    private String glob;        //通配符，如 *.xlsx、~$*；包含 / 时匹配完整路径，如 **/报表/*.csv
+    private String regex;       //文件名正则（整体匹配），如 .*统计表\.xlsx
+    private String ext;         //扩展名，不区分大小写，多个以逗号分隔，如 xlsx,xls
+    private Long minSize;       //最小文件大小（字节）
+    private Long maxSize;       //最大文件大小（字节）
+    private Long minAge;        //距最后修改时间的最小时长(ms)
+    private Long maxAge;        //距最后修改时间的最大时长(ms)
+
+    public FileMatchRule() {
+    }
+
+    public static FileMatchRule regex(String regex) {
+        FileMatchRule rule = new FileMatchRule();
+        rule.setRegex(regex);
+        return rule;
+    }
+
+    /**
+     * 是否包含需要读取文件属性的条件
+     */
+    public boolean hasAttributeConditions() {
+        return minSize != null || maxSize != null || minAge != null || maxAge != null;
+    }
+}
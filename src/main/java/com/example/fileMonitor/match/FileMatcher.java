@@ -0,0 +1,126 @@
+package com.example.fileMonitor.match;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 文件匹配
+ * 启动时把 file.monitor.match 中的包含、排除规则编译一次；
+ * 只由文件名决定的结果按文件名（有路径规则时按完整路径）缓存，带大小、时间条件的规则才读取文件属性
+ */
+@Component
+@Slf4j
+public class FileMatcher {
+
+    @Autowired
+    private FileMatchProperties fileMatchProperties;
+
+    private CompiledRules include;
+    private CompiledRules exclude;
+    private boolean cacheByPath;
+    private int cacheSize;
+    private final Map<String, Boolean> cache = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void compile() {
+        include = new CompiledRules(fileMatchProperties.getInclude());
+        exclude = new CompiledRules(fileMatchProperties.getExclude());
+        cacheByPath = include.usesPath() || exclude.usesPath();
+        cacheSize = fileMatchProperties.getCacheSize();
+        cache.clear();
+        log.info("compile 文件匹配规则已加载：包含 {} 条，排除 {} 条，缓存 {}",
+                fileMatchProperties.getInclude().size(), fileMatchProperties.getExclude().size(), cacheSize);
+    }
+
+    /**
+     * 文件是否需要处理，需要时读取文件属性
+     */
+    public boolean matches(Path filePath) {
+        return matches(filePath, null);
+    }
+
+    /**
+     * 文件是否需要处理
+     * @param attributes 已读取的文件属性，为null时按需读取
+     */
+    public boolean matches(Path filePath, BasicFileAttributes attributes) {
+        Path name = filePath.getFileName();
+        if (name == null) {
+            return false;
+        }
+        String fileName = name.toString();
+        String path = normalize(filePath);
+        String key = cacheByPath ? path : fileName;
+        if (cacheSize > 0) {
+            Boolean cached = cache.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int included = include.isEmpty() ? CompiledRules.MATCH : include.matchName(fileName, path);
+        if (included == CompiledRules.NO_MATCH) {
+            return cache(key, false);
+        }
+        int excluded = exclude.isEmpty() ? CompiledRules.NO_MATCH : exclude.matchName(fileName, path);
+        if (excluded == CompiledRules.MATCH) {
+            return cache(key, false);
+        }
+        if (included == CompiledRules.MATCH && excluded == CompiledRules.NO_MATCH) {
+            return cache(key, true);
+        }
+        //结果取决于文件大小或修改时间，不缓存
+        if (attributes == null) {
+            try {
+                attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+            } catch (IOException e) {
+                return false;
+            }
+        }
+        long now = System.currentTimeMillis();
+        if (included == CompiledRules.NEEDS_ATTRIBUTES && !include.matchAttributes(fileName, path, attributes, now)) {
+            return false;
+        }
+        return excluded == CompiledRules.NO_MATCH || !exclude.matchAttributes(fileName, path, attributes, now);
+    }
+
+    /**
+     * 只按文件名和路径判断是否可能需要处理（文件已删除、无法读取属性时使用）
+     */
+    public boolean mayMatch(Path filePath) {
+        Path name = filePath.getFileName();
+        if (name == null) {
+            return false;
+        }
+        String fileName = name.toString();
+        String path = normalize(filePath);
+        if (!include.isEmpty() && include.matchName(fileName, path) == CompiledRules.NO_MATCH) {
+            return false;
+        }
+        return exclude.isEmpty() || exclude.matchName(fileName, path) != CompiledRules.MATCH;
+    }
+
+    private boolean cache(String key, boolean result) {
+        if (cacheSize > 0) {
+            if (cache.size() >= cacheSize) {
+                cache.clear();
+            }
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    private static String normalize(Path filePath) {
+        String path = filePath.toString();
+        return File.separatorChar == '/' ? path : path.replace(File.separatorChar, '/');
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.fileMonitor.modal;
 
+import com.example.utils.modal.Base64FileContent;
 import lombok.Data;
 
 import java.util.Date;
@@ -14,6 +15,8 @@ public class FileMonitor {
     private String filePath;        //文件的完整绝对路径
     private Long fileSize;          //文件大小（字节）
     private String fileContent;     //文件内容（文本文件）或Base64编码
+    private Base64FileContent binaryContent; //二进制内容来源，不为null时写入 file_content 的是流式编码的文件内容（不映射查询结果）
+    private String contentHash;     //文件内容SHA-256摘要，内容未变化时跳过入库和上传
     private String fileType;        //文件扩展名/类型
     private Date lastModified;      //文件最后修改时间
     private String status;          //文件状态：ACTIVE - 活跃（文件存在）、 DELETED - 已删除（文件已被删除）
@@ -0,0 +1,17 @@
+package com.example.fileMonitor.modal;
+
+import lombok.Data;
+
+import java.util.Date;
+
+/**
+ * 文件内容分块表（file_monitor_chunk），大文本按固定长度分块保存
+ */
+@Data
+public class FileMonitorChunk {
+    private Long id;                //主键ID
+    private Long fileId;            //file_monitor 记录ID
+    private Integer chunkIndex;     //块序号，从0开始
+    private String content;         //块内容
+    private Date createTime;        //记录创建时间（自动）
+}
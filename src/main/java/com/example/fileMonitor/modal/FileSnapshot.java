@@ -0,0 +1,44 @@
+package com.example.fileMonitor.modal;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 已采集文件的状态快照，用于判断文件是否发生变化
+ */
+@Data
+@NoArgsConstructor
+public class FileSnapshot {
+    private long size;          //文件大小（字节）
+    private long lastModified;  //最后修改时间（毫秒）
+    private String fileKey;     //文件系统唯一标识（inode等），无法获取时为null
+    private String contentHash; //文件内容摘要，未计算时为null
+    private Long recordId;      //数据库记录ID，未知时为null
+    private boolean uploadPending; //FTP上的文件是否落后于已采集内容（上次上传失败），为true时不能只追加新增部分
+
+    public FileSnapshot(long size, long lastModified, String fileKey, String contentHash, Long recordId) {
+        this.size = size;
+        this.lastModified = lastModified;
+        this.fileKey = fileKey;
+        this.contentHash = contentHash;
+        this.recordId = recordId;
+    }
+
+    public FileSnapshot(long size, long lastModified, String fileKey) {
+        this(size, lastModified, fileKey, null, null);
+    }
+
+    /**
+     * 判断文件当前状态与快照是否一致，任一方fileKey未知时不比较fileKey
+     */
+    public boolean sameAs(long size, long lastModified, String fileKey) {
+        if (this.size != size || this.lastModified != lastModified) {
+            return false;
+        }
+        return this.fileKey == null || fileKey == null || this.fileKey.equals(fileKey);
+    }
+
+    public boolean sameAs(FileSnapshot other) {
+        return other != null && sameAs(other.size, other.lastModified, other.fileKey);
+    }
+}
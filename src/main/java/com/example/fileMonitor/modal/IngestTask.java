@@ -0,0 +1,26 @@
+package com.example.fileMonitor.modal;
+
+import com.example.fileMonitor.extract.ContentExtractor;
+import com.example.utils.modal.ReadFileModal;
+import lombok.Data;
+
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+
+/**
+ * 采集流水线中流转的文件任务
+ */
+@Data
+public class IngestTask {
+    private final WatchEvent.Kind<?> kind;      //触发的文件事件类型
+    private final Path filePath;                //文件路径
+    private ContentExtractor extractor;         //按扩展名选择的内容抽取器
+    private ReadFileModal readFileModal;        //内容抽取结果
+    private FileMonitor fileMonitor;            //待持久化/已持久化的记录
+    private FileSnapshot snapshot;              //抽取时的文件状态快照
+    private long reservedBytes;                 //占用的在途字节额度，任务结束时归还
+    private long appendFrom = -1;               //日志增量采集的起始位置，-1表示完整采集
+    private long appendTo;                      //日志增量采集的结束位置（不包含）
+    private volatile boolean stabilizing;       //是否处于写入稳定检测中
+    private volatile WatchEvent.Kind<?> pendingKind; //处理期间同一路径上又发生的事件（处理完成后重新投递）
+}
@@ -0,0 +1,37 @@
+package com.example.fileMonitor.modal;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 采集流水线运行状态，用于观察积压情况和评估部署规模
+ */
+@Data
+public class PipelineStats {
+    private String overflowPolicy;              //积压达到上限后的处理方式
+    private int maxPending;                     //积压事件上限
+    private int coalescingCount;                //等待合并输出的路径数
+    private int inFlightCount;                  //流水线中处理中的路径数
+    private long overflowCount;                 //积压达到上限的次数
+    private long blockedSubmitCount;            //投递线程被阻塞的次数
+    private long spilledCount;                  //写入溢出文件的事件数
+    private long spillPending;                  //溢出文件中未回放的事件数
+    private long deferredCount;                 //改为对账扫描的事件数
+    private long inFlightBytes;                 //当前占用的在途字节数
+    private long maxInFlightBytes;              //在途字节数上限
+    private long byteBudgetWaitCount;           //因在途字节数不足等待的次数
+    private List<StageStats> stages = new ArrayList<>(); //各阶段状态
+
+    /**
+     * 单个阶段的状态
+     */
+    @Data
+    public static class StageStats {
+        private String name;                    //阶段名称
+        private int queueDepth;                 //排队中的任务数
+        private int activeCount;                //执行中的任务数
+        private long blockedCount;              //队列已满阻塞提交方的次数
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.fileMonitor.pipeline;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * 在途字节数限制
+ * 内容抽取前按文件大小申请额度，任务结束后归还，限制同时解析、上传的数据总量；
+ * 按申请顺序分配，超过上限的单个文件占用全部额度（独占处理）
+ */
+public class ByteBudget {
+    private final long limit;
+    private final Deque<Object> waiters = new ArrayDeque<>();
+    private long used;
+    private long waitCount;
+
+    /**
+     * @param limit 额度上限（字节），不大于0表示不限制
+     */
+    public ByteBudget(long limit) {
+        this.limit = limit;
+    }
+
+    /**
+     * 申请额度，额度不足时阻塞
+     * @return 实际占用的额度，归还时传入
+     */
+    public long acquire(long bytes) throws InterruptedException {
+        if (limit <= 0) {
+            return 0;
+        }
+        long amount = Math.min(Math.max(bytes, 0), limit);
+        synchronized (this) {
+            if (waiters.isEmpty() && used + amount <= limit) {
+                used += amount;
+                return amount;
+            }
+            Object ticket = new Object();
+            waiters.addLast(ticket);
+            waitCount++;
+            try {
+                while (waiters.peekFirst() != ticket || used + amount > limit) {
+                    wait();
+                }
+            } catch (InterruptedException e) {
+                //放弃排队，让后面的申请继续
+                waiters.remove(ticket);
+                notifyAll();
+                throw e;
+            }
+            waiters.pollFirst();
+            used += amount;
+            notifyAll();
+            return amount;
+        }
+    }
+
+    public synchronized void release(long amount) {
+        if (amount <= 0) {
+            return;
+        }
+        used -= amount;
+        notifyAll();
+    }
+
+    public long getLimit() {
+        return limit;
+    }
+
+    public synchronized long getUsed() {
+        return used;
+    }
+
+    /**
+     * 累计因额度不足等待的次数
+     */
+    public synchronized long getWaitCount() {
+        return waitCount;
+    }
+}
@@ -0,0 +1,126 @@
+package com.example.fileMonitor.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+/**
+ * 按路径合并文件事件
+ * 同一路径在合并窗口内的一串事件合并为一次逻辑变更：
+ * 新增+修改=新增，新增+删除=无变化，修改+删除=删除，删除+新增=修改（文件被替换）
+ * 路径静默超过窗口时间，或距首次事件超过最长延迟时输出合并后的事件
+ */
+@Slf4j
+public class EventCoalescer {
+    private final HashedWheelTimer timer;
+    private final long window;
+    private final long maxDelay;
+    private final BiConsumer<WatchEvent.Kind<?>, Path> downstream;
+    private final Map<Path, PendingEvent> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param timer      时间轮
+     * @param window     合并窗口(ms)，路径在窗口内没有新事件才输出
+     * @param maxDelay   最长延迟(ms)，持续有事件的路径最多延迟这么久输出
+     * @param downstream 合并后事件的接收方
+     */
+    public EventCoalescer(HashedWheelTimer timer, long window, long maxDelay,
+                          BiConsumer<WatchEvent.Kind<?>, Path> downstream) {
+        this.timer = timer;
+        this.window = window;
+        this.maxDelay = Math.max(maxDelay, window);
+        this.downstream = downstream;
+    }
+
+    public void offer(WatchEvent.Kind<?> kind, Path filePath) {
+        if (window <= 0) {
+            downstream.accept(kind, filePath);
+            return;
+        }
+        long now = System.currentTimeMillis();
+        PendingEvent[] created = new PendingEvent[1];
+        pending.compute(filePath, (path, current) -> {
+            if (current == null) {
+                created[0] = new PendingEvent(kind, now);
+                return created[0];
+            }
+            current.kind = merge(current.kind, kind);
+            current.lastSeen = now;
+            current.merged++;
+            return current;
+        });
+        if (created[0] != null) {
+            schedule(filePath, created[0], window);
+        }
+    }
+
+    /**
+     * 当前等待合并输出的路径数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void schedule(Path filePath, PendingEvent event, long delay) {
+        timer.schedule(() -> flush(filePath, event), delay);
+    }
+
+    private void flush(Path filePath, PendingEvent event) {
+        long now = System.currentTimeMillis();
+        long quietFor = now - event.lastSeen;
+        long waited = now - event.firstSeen;
+        if (quietFor < window && waited < maxDelay) {
+            schedule(filePath, event, Math.min(window - quietFor, maxDelay - waited));
+            return;
+        }
+        if (!pending.remove(filePath, event)) {
+            return;
+        }
+        //remove与offer中的compute互斥，移除成功后该对象不会再被修改
+        WatchEvent.Kind<?> kind = event.kind;
+        if (kind == null) {
+            log.debug("flush 事件相互抵消，忽略: {}（合并 {} 个事件）", filePath, event.merged);
+            return;
+        }
+        if (event.merged > 1) {
+            log.debug("flush {} 个事件合并为 {}: {}", event.merged, kind.name(), filePath);
+        }
+        downstream.accept(kind, filePath);
+    }
+
+    /**
+     * 合并两个事件，返回null表示相互抵消
+     */
+    private WatchEvent.Kind<?> merge(WatchEvent.Kind<?> previous, WatchEvent.Kind<?> kind) {
+        if (previous == null) {
+            //之前的事件已抵消（新增后删除），再出现的事件视为新文件
+            return kind == StandardWatchEventKinds.ENTRY_DELETE ? null : StandardWatchEventKinds.ENTRY_CREATE;
+        }
+        if (previous == StandardWatchEventKinds.ENTRY_CREATE) {
+            return kind == StandardWatchEventKinds.ENTRY_DELETE ? null : previous;
+        }
+        if (previous == StandardWatchEventKinds.ENTRY_DELETE) {
+            return kind == StandardWatchEventKinds.ENTRY_DELETE ? previous : StandardWatchEventKinds.ENTRY_MODIFY;
+        }
+        //previous为修改
+        return kind == StandardWatchEventKinds.ENTRY_CREATE ? previous : kind;
+    }
+
+    private static class PendingEvent {
+        private final long firstSeen;
+        private volatile WatchEvent.Kind<?> kind;
+        private volatile long lastSeen;
+        private int merged = 1;
+
+        PendingEvent(WatchEvent.Kind<?> kind, long firstSeen) {
+            this.kind = kind;
+            this.firstSeen = firstSeen;
+            this.lastSeen = firstSeen;
+        }
+    }
+}
@@ -0,0 +1,828 @@
+package com.example.fileMonitor.pipeline;
+
+import com.example.fileMonitor.extract.ContentExtractor;
+import com.example.fileMonitor.extract.ContentExtractorRegistry;
+import com.example.fileMonitor.extract.ExtractCost;
+import com.example.fileMonitor.extract.FileContentSource;
+import com.example.fileMonitor.match.FileMatcher;
+import com.example.fileMonitor.modal.FileMonitor;
+import com.example.fileMonitor.modal.FileSnapshot;
+import com.example.fileMonitor.modal.IngestTask;
+import com.example.fileMonitor.modal.PipelineStats;
+import com.example.fileMonitor.service.FileMonitorChunkService;
+import com.example.fileMonitor.service.FileMonitorService;
+import com.example.ftp.service.FtpService;
+import com.example.utils.ContentHashUtil;
+import com.example.utils.FileAccess;
+import com.example.utils.TextChunkReader;
+import com.example.utils.modal.ReadFileModal;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 文件采集流水线
+ * 事件接收 -> 写入稳定检测 -> 内容抽取 -> 数据库持久化 -> FTP上传
+ * 每个阶段独立的有界队列与线程池，监控线程只负责投递事件
+ */
+@Component
+@Slf4j
+public class FileIngestPipeline {
+
+    @Autowired
+    private FtpService ftpService;
+
+    @Autowired
+    private FileMonitorService fileMonitorService;
+
+    @Autowired
+    private ContentExtractorRegistry contentExtractorRegistry;
+
+    @Autowired
+    private FileMonitorChunkService fileMonitorChunkService;
+
+    @Autowired
+    private FileSnapshotIndex fileSnapshotIndex;
+
+    @Autowired
+    private FileMatcher fileMatcher;
+
+    @Autowired
+    private TailFollower tailFollower;
+
+    @Value("${file.monitor.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${file.monitor.pipeline.intake-threads:1}")
+    private int intakeThreads;
+
+    @Value("${file.monitor.pipeline.stabilize-threads:2}")
+    private int stabilizeThreads;
+
+    @Value("${file.monitor.stabilize.check-interval:500}")
+    private long stabilizeCheckInterval;
+
+    @Value("${file.monitor.stabilize.quiet-period:2000}")
+    private long stabilizeQuietPeriod;
+
+    @Value("${file.monitor.stabilize.max-wait:600000}")
+    private long stabilizeMaxWait;
+
+    @Value("${file.monitor.coalesce.window:500}")
+    private long coalesceWindow;
+
+    @Value("${file.monitor.coalesce.max-delay:5000}")
+    private long coalesceMaxDelay;
+
+    @Value("${file.monitor.pipeline.extract-threads:4}")
+    private int extractThreads;
+
+    @Value("${file.monitor.pipeline.heavy-extract-threads:1}")
+    private int heavyExtractThreads;
+
+    @Value("${file.monitor.pipeline.heavy-extract-max-size:104857600}")
+    private long heavyExtractMaxSize;
+
+    @Value("${file.monitor.pipeline.persist-threads:4}")
+    private int persistThreads;
+
+    @Value("${file.monitor.pipeline.upload-threads:2}")
+    private int uploadThreads;
+
+    @Value("${file.monitor.pipeline.shutdown-timeout:30000}")
+    private long shutdownTimeout;
+
+    @Value("${file.monitor.pipeline.max-pending:10000}")
+    private int maxPending;
+
+    @Value("${file.monitor.pipeline.overflow-policy:BLOCK}")
+    private OverflowPolicy overflowPolicy;
+
+    @Value("${file.monitor.pipeline.spill-path:data/ingest-spill.log}")
+    private String spillPath;
+
+    @Value("${file.monitor.pipeline.max-in-flight-bytes:268435456}")
+    private long maxInFlightBytes;
+
+    private IngestStage intakeStage;
+    private IngestStage stabilizeStage;
+    private IngestStage extractStage;
+    private IngestStage heavyExtractStage;
+    private IngestStage persistStage;
+    private IngestStage uploadStage;
+    private HashedWheelTimer timer;
+    private FileStabilizer fileStabilizer;
+    private EventCoalescer eventCoalescer;
+    //积压事件的重新投递线程，避免阶段工作线程反向阻塞在上游队列上造成死锁
+    private ExecutorService redeliverExecutor;
+    private ByteBudget byteBudget;
+    private SpillQueue spillQueue;
+    private Thread spillDrainThread;
+    //DEFER策略下接收被丢弃事件所在目录的对账申请
+    private volatile Consumer<Path> deferHandler;
+    //监控根目录，上传时远程路径按文件相对根目录的路径生成
+    private volatile List<Path> watchRoots = Collections.emptyList();
+    private volatile boolean running;
+
+    //积压达到上限时等待空位的投递线程
+    private final Object admissionLock = new Object();
+    private final AtomicLong admissionWaiters = new AtomicLong();
+    private final AtomicLong overflowCount = new AtomicLong();
+    private final AtomicLong blockedSubmitCount = new AtomicLong();
+    private final AtomicLong deferredCount = new AtomicLong();
+
+    //正在流水线中处理的路径，保证同一文件的事件按顺序处理
+    private final Map<Path, IngestTask> inFlight = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void start() {
+        running = true;
+        //在途路径数不超过积压上限，接收、稳定检测队列按上限分配，时间轮线程投递时不会被阻塞
+        intakeStage = new IngestStage("Intake", intakeThreads, Math.max(queueCapacity, maxPending));
+        stabilizeStage = new IngestStage("Stabilize", stabilizeThreads, Math.max(queueCapacity, maxPending));
+        extractStage = new IngestStage("Extract", extractThreads, queueCapacity);
+        heavyExtractStage = new IngestStage("HeavyExtract", heavyExtractThreads, queueCapacity);
+        persistStage = new IngestStage("Persist", persistThreads, queueCapacity);
+        uploadStage = new IngestStage("Upload", uploadThreads, queueCapacity);
+        timer = new HashedWheelTimer("Ingest-Timer", 100, 512);
+        fileStabilizer = new FileStabilizer(timer, stabilizeStage,
+                stabilizeCheckInterval, stabilizeQuietPeriod, stabilizeMaxWait);
+        eventCoalescer = new EventCoalescer(timer, coalesceWindow, coalesceMaxDelay, this::dispatch);
+        redeliverExecutor = Executors.newSingleThreadExecutor(r -> {
+            Thread thread = new Thread(r, "Ingest-Redeliver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        byteBudget = new ByteBudget(maxInFlightBytes);
+        if (overflowPolicy == OverflowPolicy.SPILL) {
+            startSpill();
+        }
+        log.info("start 文件采集流水线已启动 intake={} stabilize={} extract={} heavyExtract={} persist={} upload={} queueCapacity={} maxPending={} overflowPolicy={} maxInFlightBytes={}",
+                intakeThreads, stabilizeThreads, extractThreads, heavyExtractThreads, persistThreads, uploadThreads, queueCapacity,
+                maxPending, overflowPolicy, maxInFlightBytes);
+    }
+
+    private void startSpill() {
+        try {
+            SpillQueue queue = new SpillQueue(Paths.get(spillPath).toAbsolutePath());
+            queue.open();
+            spillQueue = queue;
+        } catch (IOException e) {
+            log.error("startSpill 溢出文件打开失败，积压时改为阻塞: {}", spillPath, e);
+            return;
+        }
+        spillDrainThread = new Thread(this::drainSpill, "Ingest-Spill-Drain");
+        spillDrainThread.setDaemon(true);
+        spillDrainThread.start();
+    }
+
+    /**
+     * 回放溢出文件中的事件，回放时按积压上限等待
+     */
+    private void drainSpill() {
+        while (running) {
+            try {
+                if (spillQueue.isEmpty()) {
+                    Thread.sleep(1000);
+                    continue;
+                }
+                long start = System.currentTimeMillis();
+                long count = spillQueue.drain(this::submitAndWait);
+                log.info("drainSpill 溢出事件回放完成 {} 个，耗时 {}ms", count, System.currentTimeMillis() - start);
+            } catch (InterruptedException | InterruptedIOException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("drainSpill 溢出事件回放失败", e);
+                try {
+                    Thread.sleep(1000);
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        running = false;
+        if (spillDrainThread != null) {
+            spillDrainThread.interrupt();
+        }
+        if (spillQueue != null) {
+            spillQueue.close();
+        }
+        if (timer != null) {
+            timer.stop();
+        }
+        //按上游到下游的顺序关闭，让已接收的任务尽量处理完
+        for (IngestStage stage : new IngestStage[]{intakeStage, stabilizeStage, extractStage, heavyExtractStage, persistStage, uploadStage}) {
+            if (stage != null) {
+                stage.shutdown(shutdownTimeout);
+            }
+        }
+        if (redeliverExecutor != null) {
+            redeliverExecutor.shutdownNow();
+        }
+        log.info("shutdown 文件采集流水线已停止");
+    }
+
+    /**
+     * 投递文件事件，由监控线程调用
+     * 事件先按路径合并，合并窗口结束后再进入流水线；积压达到上限时按配置的策略阻塞、溢出到文件或改为对账
+     */
+    public void submit(WatchEvent.Kind<?> kind, Path filePath) {
+        SpillQueue spill = spillQueue;
+        if (spill != null && !spill.isEmpty()) {
+            //溢出文件未回放完时新事件也排在后面，保证同一文件的事件顺序
+            spill.append(kind, filePath);
+            return;
+        }
+        if (maxPending > 0 && getPendingCount() >= maxPending) {
+            overflowCount.incrementAndGet();
+            if (overflowPolicy == OverflowPolicy.SPILL && spill != null) {
+                spill.append(kind, filePath);
+                return;
+            }
+            Consumer<Path> handler = deferHandler;
+            if (overflowPolicy == OverflowPolicy.DEFER && handler != null && filePath.getParent() != null) {
+                deferredCount.incrementAndGet();
+                handler.accept(filePath.getParent());
+                return;
+            }
+            awaitCapacity();
+        }
+        eventCoalescer.offer(kind, filePath);
+    }
+
+    /**
+     * 投递文件事件，积压达到上限时总是阻塞等待
+     * 供启动扫描、对账扫描等可以暂停的来源使用
+     */
+    public void submitAndWait(WatchEvent.Kind<?> kind, Path filePath) {
+        awaitCapacity();
+        eventCoalescer.offer(kind, filePath);
+    }
+
+    /**
+     * 设置监控根目录
+     */
+    public void setWatchRoots(List<Path> watchRoots) {
+        this.watchRoots = new ArrayList<>(watchRoots);
+    }
+
+    /**
+     * 设置DEFER策略下的对账申请方
+     */
+    public void setDeferHandler(Consumer<Path> deferHandler) {
+        this.deferHandler = deferHandler;
+    }
+
+    /**
+     * 等待合并和处理中的路径数
+     */
+    private int getPendingCount() {
+        return eventCoalescer.getPendingCount() + inFlight.size();
+    }
+
+    private void awaitCapacity() {
+        if (maxPending <= 0 || getPendingCount() < maxPending) {
+            return;
+        }
+        blockedSubmitCount.incrementAndGet();
+        admissionWaiters.incrementAndGet();
+        try {
+            synchronized (admissionLock) {
+                while (running && getPendingCount() >= maxPending) {
+                    //合并窗口中的路径不经过finish，定时复查
+                    admissionLock.wait(100);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            admissionWaiters.decrementAndGet();
+        }
+    }
+
+    /**
+     * 合并后的事件进入流水线
+     * 同一路径已在处理中时，记录为待处理事件，当前任务完成后再重新投递
+     */
+    private void dispatch(WatchEvent.Kind<?> kind, Path filePath) {
+        IngestTask task = new IngestTask(kind, filePath);
+        IngestTask accepted = inFlight.compute(filePath, (path, current) -> {
+            if (current == null) {
+                return task;
+            }
+            if (current.isStabilizing() && kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+                //稳定检测会观察到这次修改，无需再排队
+                return current;
+            }
+            current.setPendingKind(mergePendingKind(current.getPendingKind(), kind));
+            return current;
+        });
+        if (accepted == task) {
+            intakeStage.submit(() -> intake(task));
+        } else {
+            log.debug("dispatch 文件正在处理中，事件延后处理: {} {}", kind.name(), filePath);
+        }
+    }
+
+    /**
+     * 路径是否正在流水线中处理
+     */
+    public boolean isInFlight(Path filePath) {
+        return inFlight.containsKey(filePath);
+    }
+
+    private WatchEvent.Kind<?> mergePendingKind(WatchEvent.Kind<?> pending, WatchEvent.Kind<?> kind) {
+        if (pending == null) {
+            return kind;
+        }
+        if (pending == StandardWatchEventKinds.ENTRY_CREATE && kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            return pending;
+        }
+        if (pending == StandardWatchEventKinds.ENTRY_DELETE && kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            //删除后重新创建，视为文件被替换
+            return StandardWatchEventKinds.ENTRY_MODIFY;
+        }
+        return kind;
+    }
+
+    /**
+     * 任务结束（完成、失败或被过滤），释放路径并投递期间积压的事件
+     */
+    private void finish(IngestTask task) {
+        byteBudget.release(task.getReservedBytes());
+        task.setReservedBytes(0);
+        IngestTask[] next = new IngestTask[1];
+        inFlight.compute(task.getFilePath(), (path, current) -> {
+            if (current != task) {
+                return current;
+            }
+            WatchEvent.Kind<?> pending = current.getPendingKind();
+            if (pending == null) {
+                return null;
+            }
+            next[0] = new IngestTask(pending, path);
+            return next[0];
+        });
+        if (next[0] != null) {
+            //同一路径最多一个积压事件，重新投递队列的长度受在途路径数约束
+            redeliverExecutor.execute(() -> intakeStage.submit(() -> intake(next[0])));
+        } else if (admissionWaiters.get() > 0) {
+            synchronized (admissionLock) {
+                admissionLock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * 将任务交给下一阶段，任何异常都会结束任务
+     */
+    private void handOff(IngestStage stage, IngestTask task, StageStep step) {
+        stage.submit(() -> {
+            boolean forwarded = false;
+            try {
+                forwarded = step.run(task);
+            } catch (Exception e) {
+                log.error("{} 处理文件失败: {}", stage.getName(), task.getFilePath(), e);
+            } finally {
+                if (!forwarded) {
+                    finish(task);
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface StageStep {
+        /**
+         * @return 任务是否已转交给下一阶段
+         */
+        boolean run(IngestTask task) throws Exception;
+    }
+
+    /**
+     * 事件接收：过滤文件名并按事件类型分发
+     */
+    private void intake(IngestTask task) {
+        Path filePath = task.getFilePath();
+        log.info("[{}] 文件: {}", getEventAction(task.getKind()), filePath.getFileName());
+        boolean matched;
+        try {
+            //已删除的文件无法读取属性，只按名称判断
+            matched = task.getKind() == StandardWatchEventKinds.ENTRY_DELETE
+                    ? fileMatcher.mayMatch(filePath) : fileMatcher.matches(filePath);
+        } catch (Exception e) {
+            log.error("intake 文件名匹配失败: {}", filePath, e);
+            matched = false;
+        }
+        if (!matched) {
+            finish(task);
+            return;
+        }
+        if (task.getKind() == StandardWatchEventKinds.ENTRY_DELETE) {
+            handOff(persistStage, task, this::persist);
+        } else if (tailFollower.isTailFile(filePath)) {
+            //持续写入的日志不等待写入稳定，已采集过的只采集新增的完整行
+            handOff(extractStage, task, this::extract);
+        } else {
+            stabilize(task);
+        }
+    }
+
+    /**
+     * 等待文件写入完成：交给稳定检测跟踪，稳定后进入内容抽取阶段
+     */
+    private void stabilize(IngestTask task) {
+        task.setStabilizing(true);
+        fileStabilizer.track(task.getFilePath(),
+                path -> {
+                    task.setStabilizing(false);
+                    handOff(extractStage, task, this::extract);
+                },
+                path -> {
+                    task.setStabilizing(false);
+                    finish(task);
+                });
+    }
+
+    /**
+     * 内容抽取前的检查：文件未变化时跳过，并按抽取器开销选择执行阶段
+     */
+    private boolean extract(IngestTask task) throws IOException {
+        Path filePath = task.getFilePath();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            log.info("extract 文件已不存在: {}", filePath);
+            return false;
+        }
+        FileSnapshot current = FileSnapshotIndex.of(attributes);
+        FileSnapshot previous = fileSnapshotIndex.get(filePath);
+        if (previous != null && previous.sameAs(current)) {
+            //大小、修改时间与已采集记录一致（如仅修改了文件属性），无需重新处理
+            log.info("extract 文件未变化，跳过: {}", filePath);
+            return false;
+        }
+        if (previous != null && previous.getRecordId() != null && tailFollower.isTailFile(filePath)) {
+            long end = tailFollower.plan(filePath, previous, current);
+            if (end != TailFollower.FULL) {
+                return extractAppend(task, previous, current, end);
+            }
+        }
+        //按文件大小占用在途字节额度（摘要计算也要完整读取文件），任务结束（上传完成、跳过或失败）时归还
+        try {
+            task.setReservedBytes(byteBudget.acquire(current.getSize()));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+        //先流式计算摘要，内容未变化时连解析也省去
+        String contentHash = ContentHashUtil.sha256(filePath, current.getSize());
+        current.setContentHash(contentHash);
+        if (previous != null && contentHash.equals(previous.getContentHash())) {
+            //内容未变化（touch、杀毒软件扫描等只改动了修改时间），只刷新快照，跳过入库和FTP上传
+            current.setRecordId(previous.getRecordId());
+            fileSnapshotIndex.put(filePath, current);
+            log.info("extract 文件内容未变化，跳过入库和上传: {}", filePath);
+            return false;
+        }
+        //已采集过的文件沿用原记录ID，持久化时按更新处理
+        current.setRecordId(previous == null ? null : previous.getRecordId());
+        task.setSnapshot(current);
+        //按扩展名选择抽取器，Excel等重型解析交给独立的限量阶段
+        ContentExtractor extractor = contentExtractorRegistry.forPath(filePath);
+        task.setExtractor(extractor);
+        if (extractor.getCost() == ExtractCost.HEAVY) {
+            handOff(heavyExtractStage, task, this::extractContent);
+            return true;
+        }
+        return extractContent(task);
+    }
+
+    /**
+     * 日志增量采集：不计算全文摘要，只记录新增范围，由持久化阶段追加分块
+     */
+    private boolean extractAppend(IngestTask task, FileSnapshot previous, FileSnapshot current, long end) {
+        Path filePath = task.getFilePath();
+        if (end <= previous.getSize()) {
+            log.debug("extract 日志没有新的完整行: {}", filePath);
+            return false;
+        }
+        //快照大小记为已采集的偏移，不含尚未写完的最后一行
+        current.setSize(end);
+        current.setRecordId(previous.getRecordId());
+        current.setUploadPending(previous.isUploadPending());
+        task.setSnapshot(current);
+        task.setAppendFrom(previous.getSize());
+        task.setAppendTo(end);
+        task.setFileMonitor(tailFollower.toFileMonitor(filePath, current));
+        handOff(persistStage, task, this::persist);
+        return true;
+    }
+
+    /**
+     * 内容抽取：读取文件内容并组装记录
+     */
+    private boolean extractContent(IngestTask task) throws IOException {
+        Path filePath = task.getFilePath();
+        FileSnapshot current = task.getSnapshot();
+        //在途字节额度已在计算摘要前占用
+        ReadFileModal readFileModal;
+        ContentExtractor extractor = task.getExtractor();
+        if (extractor.getCost() == ExtractCost.HEAVY && heavyExtractMaxSize > 0 && current.getSize() > heavyExtractMaxSize) {
+            readFileModal = new ReadFileModal();
+            readFileModal.setReadInstructions("[文件过大，仅保存基本信息]");
+            log.warn("extractContent 文件超过解析大小上限 {}，仅保存基本信息: {}", heavyExtractMaxSize, filePath);
+        } else {
+            try (FileContentSource source = FileContentSource.open(filePath, current.getSize())) {
+                extractor = contentExtractorRegistry.confirm(extractor, source);
+                readFileModal = extractor.extract(source);
+            } catch (NoSuchFileException e) {
+                log.info("extractContent 文件已不存在: {}", filePath);
+                return false;
+            }
+        }
+        if (readFileModal.getChunkSize() == null && tailFollower.isTailFile(filePath)) {
+            //日志文件全文分块保存（包括只保存预览或按二进制保存的），后续新增内容追加在其后，分块之间没有缺口
+            readFileModal.setChunkSize(tailFollower.getChunkSize(filePath));
+        }
+        String content = readFileModal.getReadInstructions();
+        log.info("extractContent content = " + content);
+        FileMonitor fileMonitor = new FileMonitor();
+        fileMonitor.setId(current.getRecordId());
+        fileMonitor.setFileName(filePath.getFileName().toString());
+        fileMonitor.setFilePath(filePath.toAbsolutePath().toString());
+        fileMonitor.setFileSize(current.getSize());
+        if (readFileModal.getBinaryContent() != null) {
+            fileMonitor.setBinaryContent(readFileModal.getBinaryContent());
+        } else {
+            fileMonitor.setFileContent(content);
+        }
+        fileMonitor.setContentHash(current.getContentHash());
+        fileMonitor.setFileType(ContentExtractorRegistry.getExtension(filePath));
+        fileMonitor.setLastModified(new Date(current.getLastModified()));
+        fileMonitor.setStatus("ACTIVE");
+        fileMonitor.setIsExported(false);
+        fileMonitor.setFtpUploaded(false);
+        task.setReadFileModal(readFileModal);
+        task.setFileMonitor(fileMonitor);
+        handOff(persistStage, task, this::persist);
+        return true;
+    }
+
+    /**
+     * 数据库持久化：新增、更新或标记删除
+     */
+    private boolean persist(IngestTask task) throws Exception {
+        Path filePath = task.getFilePath();
+        WatchEvent.Kind<?> kind = task.getKind();
+        if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            int deleted = fileMonitorService.markAsDeleted(filePath.toAbsolutePath().toString());
+            fileSnapshotIndex.remove(filePath);
+            if (deleted > 0) {
+                log.info("persist 文件标记为已删除: {}", filePath);
+            }
+            return false;
+        }
+        FileMonitor fileMonitor = task.getFileMonitor();
+        if (task.getAppendFrom() >= 0) {
+            tailFollower.append(task);
+            fileSnapshotIndex.put(filePath, task.getSnapshot());
+            handOff(uploadStage, task, this::upload);
+            return true;
+        }
+        try {
+            if (kind == StandardWatchEventKinds.ENTRY_CREATE && fileMonitor.getId() == null) {
+                log.info("persist fileMonitor fileName: {} | FilePath: {} | FileSize: {} | fileType: {} | LastModified: {}", fileMonitor.getFileName(), fileMonitor.getFilePath(), fileMonitor.getFileSize(), fileMonitor.getFileType(), fileMonitor.getLastModified());
+                fileMonitorService.saveFileMonitor(fileMonitor);
+                log.info("persist 已保存到数据库，ID: {}", fileMonitor.getId());
+            } else {
+                log.info("persist fileMonitor FilePath: {} | FileSize: {} | LastModified: {}", fileMonitor.getFilePath(), fileMonitor.getFileSize(), fileMonitor.getLastModified());
+                int updated = fileMonitorService.updateFileContent(fileMonitor);
+                if (updated > 0) {
+                    log.info("persist 文件内容已更新");
+                } else {
+                    //删除后重建的文件会合并为修改事件，数据库中没有记录时按新增处理
+                    fileMonitorService.saveFileMonitor(fileMonitor);
+                    log.info("persist 未找到原记录，已新增到数据库，ID: {}", fileMonitor.getId());
+                }
+            }
+        } finally {
+            //语句执行完后关闭流式写入时打开的文件
+            if (fileMonitor.getBinaryContent() != null) {
+                fileMonitor.getBinaryContent().close();
+            }
+        }
+        if (task.getReadFileModal().getChunkSize() != null) {
+            saveChunks(task);
+        }
+        task.getSnapshot().setRecordId(fileMonitor.getId());
+        fileSnapshotIndex.put(filePath, task.getSnapshot());
+        handOff(uploadStage, task, this::upload);
+        return true;
+    }
+
+    /**
+     * 记录ID确定后，重新流式读取文件，把全文分块批量写入 file_monitor_chunk
+     */
+    private void saveChunks(IngestTask task) throws Exception {
+        Path filePath = task.getFilePath();
+        FileMonitor fileMonitor = task.getFileMonitor();
+        if (fileMonitor.getId() == null) {
+            //按路径更新的记录需要先查询ID
+            List<FileMonitor> files = fileMonitorService.selectByFilePath(filePath.toString());
+            if (files.isEmpty()) {
+                log.warn("saveChunks 未找到文件记录，跳过分块保存: {}", filePath);
+                return;
+            }
+            fileMonitor.setId(files.get(0).getId());
+        }
+        long start = System.currentTimeMillis();
+        //只读取到抽取时的大小，持续写入的日志新增部分由增量采集处理
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+             TextChunkReader chunks = new TextChunkReader(FileAccess.openStream(channel, 0, task.getSnapshot().getSize()),
+                     StandardCharsets.UTF_8, task.getReadFileModal().getChunkSize())) {
+            int count = fileMonitorChunkService.replaceChunks(fileMonitor.getId(), chunks);
+            log.info("saveChunks 全文已分块保存 {} 块，耗时 {}ms: {}", count, System.currentTimeMillis() - start, filePath);
+        }
+    }
+
+    /**
+     * FTP上传并更新上传状态
+     */
+    private boolean upload(IngestTask task) throws Exception {
+        Path filePath = task.getFilePath();
+        FileSnapshot snapshot = task.getSnapshot();
+        String remotePath = remotePath(filePath);
+        boolean uploaded;
+        if (task.getAppendFrom() >= 0 || tailFollower.isTailFile(filePath)) {
+            //上传成功前标记远程文件落后，上传失败或异常时下次增量采集整体重新上传，不在缺失的内容后继续追加
+            boolean append = task.getAppendFrom() >= 0 && !snapshot.isUploadPending();
+            snapshot.setUploadPending(true);
+            try {
+                if (append) {
+                    //远程文件只追加新增部分
+                    uploaded = ftpService.uploadRange(filePath.toFile(), remotePath, task.getAppendFrom(), task.getAppendTo());
+                } else {
+                    //日志只上传到已采集的偏移，之后的内容随增量采集追加
+                    uploaded = ftpService.uploadRange(filePath.toFile(), remotePath, 0, snapshot.getSize());
+                }
+                snapshot.setUploadPending(!uploaded);
+            } finally {
+                //上传结果写入采集日志，重启后仍知道远程文件是否落后
+                fileSnapshotIndex.put(filePath, snapshot);
+            }
+        } else {
+            uploaded = ftpService.uploadFile(filePath.toFile(), remotePath);
+        }
+        if (uploaded) {
+            Long id = task.getFileMonitor().getId();
+            if (id == null) {
+                // 更新上传状态（需要先查询ID）
+                List<FileMonitor> files = fileMonitorService.selectByFilePath(filePath.toString());
+                if (!files.isEmpty()) {
+                    id = files.get(0).getId();
+                }
+            }
+            if (id != null) {
+                fileMonitorService.markAsUploaded(id);
+            }
+            log.info("upload 文件已上传到FTP服务器: {}", filePath.getFileName());
+        }
+        return false;
+    }
+
+    /**
+     * 远程路径：文件相对所在监控根目录的路径（/分隔），不同子目录下的同名文件不会互相覆盖；
+     * 监控多个根目录时加上根目录名作为第一级目录，不在任何根目录下时只用文件名
+     */
+    String remotePath(Path filePath) {
+        Path absolute = filePath.toAbsolutePath().normalize();
+        List<Path> roots = watchRoots;
+        Path root = null;
+        for (Path candidate : roots) {
+            if (absolute.startsWith(candidate) && !absolute.equals(candidate)
+                    && (root == null || candidate.getNameCount() > root.getNameCount())) {
+                root = candidate;
+            }
+        }
+        if (root == null) {
+            return absolute.getFileName().toString();
+        }
+        StringBuilder remotePath = new StringBuilder();
+        if (roots.size() > 1 && root.getFileName() != null) {
+            remotePath.append(root.getFileName()).append('/');
+        }
+        Path relative = root.relativize(absolute);
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            if (i > 0) {
+                remotePath.append('/');
+            }
+            remotePath.append(relative.getName(i));
+        }
+        return remotePath.toString();
+    }
+
+    /**
+     * 当前运行状态
+     */
+    public PipelineStats getStats() {
+        PipelineStats stats = new PipelineStats();
+        stats.setOverflowPolicy(overflowPolicy.name());
+        stats.setMaxPending(maxPending);
+        stats.setCoalescingCount(eventCoalescer.getPendingCount());
+        stats.setInFlightCount(inFlight.size());
+        stats.setOverflowCount(overflowCount.get());
+        stats.setBlockedSubmitCount(blockedSubmitCount.get());
+        stats.setDeferredCount(deferredCount.get());
+        if (spillQueue != null) {
+            stats.setSpilledCount(spillQueue.getSpilledCount());
+            stats.setSpillPending(spillQueue.getPending());
+        }
+        stats.setInFlightBytes(byteBudget.getUsed());
+        stats.setMaxInFlightBytes(byteBudget.getLimit());
+        stats.setByteBudgetWaitCount(byteBudget.getWaitCount());
+        for (IngestStage stage : new IngestStage[]{intakeStage, stabilizeStage, extractStage, heavyExtractStage, persistStage, uploadStage}) {
+            PipelineStats.StageStats stageStats = new PipelineStats.StageStats();
+            stageStats.setName(stage.getName());
+            stageStats.setQueueDepth(stage.getQueueDepth());
+            stageStats.setActiveCount(stage.getActiveCount());
+            stageStats.setBlockedCount(stage.getBlockedCount());
+            stats.getStages().add(stageStats);
+        }
+        return stats;
+    }
+
+    /**
+     * 定时输出运行状态，空闲时不输出
+     */
+    @Scheduled(fixedDelayString = "${file.monitor.pipeline.stats-interval:60000}")
+    public void logStats() {
+        if (eventCoalescer == null || (getPendingCount() == 0 && (spillQueue == null || spillQueue.isEmpty()))) {
+            return;
+        }
+        PipelineStats stats = getStats();
+        StringBuilder stages = new StringBuilder();
+        for (PipelineStats.StageStats stage : stats.getStages()) {
+            stages.append(' ').append(stage.getName()).append('=').append(stage.getQueueDepth())
+                    .append('/').append(stage.getActiveCount()).append('/').append(stage.getBlockedCount());
+        }
+        log.info("logStats 合并中 {}，处理中 {}/{}，积压超限 {} 次（阻塞 {}，溢出 {}，待回放 {}，改为对账 {}），在途字节 {}/{}，阶段(排队/执行/阻塞):{}",
+                stats.getCoalescingCount(), stats.getInFlightCount(), stats.getMaxPending(), stats.getOverflowCount(),
+                stats.getBlockedSubmitCount(), stats.getSpilledCount(), stats.getSpillPending(), stats.getDeferredCount(),
+                stats.getInFlightBytes(), stats.getMaxInFlightBytes(), stages);
+    }
+
+    private String getEventAction(WatchEvent.Kind<?> kind) {
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE) {
+            return "新增";
+        } else if (kind == StandardWatchEventKinds.ENTRY_MODIFY) {
+            return "修改";
+        } else if (kind == StandardWatchEventKinds.ENTRY_DELETE) {
+            return "删除";
+        }
+        return "未知";
+    }
+
+    /**
+     * 文件是否符合匹配规则（file.monitor.match）
+     * @param filePath
+     * @return
+     */
+    public boolean matches(Path filePath) {
+        return fileMatcher.matches(filePath);
+    }
+}
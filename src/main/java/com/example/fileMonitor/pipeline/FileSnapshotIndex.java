@@ -0,0 +1,143 @@
+package com.example.fileMonitor.pipeline;
+
+import com.example.fileMonitor.modal.FileSnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * 已采集文件的快照索引（路径 -> 大小、修改时间、fileKey、内容摘要、记录ID）
+ * 文件入库成功后更新，删除后移除；启动扫描、事件处理和对账扫描以此判断文件是否需要处理。
+ * 开启采集日志时，每次变更追加写入本地日志，重启后回放即可恢复，无需逐个查询数据库
+ */
+@Component
+@Slf4j
+public class FileSnapshotIndex {
+
+    @Value("${file.monitor.journal.enabled:true}")
+    private boolean journalEnabled;
+
+    @Value("${file.monitor.journal.path:data/ingest-journal.log}")
+    private String journalPath;
+
+    @Value("${file.monitor.journal.compact-min-records:10000}")
+    private long compactMinRecords;
+
+    //按路径排序，便于按目录前缀查询
+    private final NavigableMap<Path, FileSnapshot> snapshots = new ConcurrentSkipListMap<>();
+    private IngestJournal journal;
+
+    @PostConstruct
+    public void load() {
+        if (!journalEnabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            journal = new IngestJournal(Paths.get(journalPath).toAbsolutePath());
+            long records = journal.load(snapshots::put, snapshots::remove);
+            log.info("load 采集日志回放完成: {}，记录 {} 条，有效文件 {} 个，耗时 {}ms",
+                    journalPath, records, snapshots.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("load 采集日志加载失败，本次运行不使用采集日志: {}", journalPath, e);
+            snapshots.clear();
+            journal = null;
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    /**
+     * 失效记录超过有效记录数时重写日志
+     */
+    @Scheduled(fixedDelayString = "${file.monitor.journal.compact-interval:60000}")
+    public void compactIfNeeded() {
+        if (journal == null) {
+            return;
+        }
+        long appended = journal.getAppendedSinceCompact();
+        if (appended < compactMinRecords || appended < snapshots.size() * 2L) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            journal.compact(snapshots);
+            log.info("compactIfNeeded 采集日志压缩完成，{} 条记录压缩为 {} 条，耗时 {}ms",
+                    appended, snapshots.size(), System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("compactIfNeeded 采集日志压缩失败", e);
+        }
+    }
+
+    public static FileSnapshot of(BasicFileAttributes attributes) {
+        Object fileKey = attributes.fileKey();
+        return new FileSnapshot(attributes.size(), attributes.lastModifiedTime().toMillis(),
+                fileKey == null ? null : fileKey.toString());
+    }
+
+    public FileSnapshot get(Path filePath) {
+        return snapshots.get(filePath);
+    }
+
+    /**
+     * 文件当前状态与已采集快照一致
+     */
+    public boolean isUnchanged(Path filePath, FileSnapshot current) {
+        FileSnapshot snapshot = snapshots.get(filePath);
+        return snapshot != null && snapshot.sameAs(current);
+    }
+
+    public void put(Path filePath, FileSnapshot snapshot) {
+        //先更新内存再写日志，压缩时持有日志锁，保证不丢失并发写入
+        snapshots.put(filePath, snapshot);
+        if (journal != null) {
+            journal.appendPut(filePath, snapshot);
+        }
+    }
+
+    public void remove(Path filePath) {
+        if (snapshots.remove(filePath) != null && journal != null) {
+            journal.appendDelete(filePath);
+        }
+    }
+
+    public int size() {
+        return snapshots.size();
+    }
+
+    /**
+     * 目录下（含子目录）所有已采集文件的路径
+     */
+    public List<Path> listUnder(Path dir) {
+        List<Path> result = new ArrayList<>();
+        String prefix = dir.toString();
+        //字符串前缀相同的路径在有序表中是连续的，再按路径层级过滤
+        for (Map.Entry<Path, FileSnapshot> entry : snapshots.tailMap(dir, false).entrySet()) {
+            Path path = entry.getKey();
+            if (!path.toString().startsWith(prefix)) {
+                break;
+            }
+            if (path.startsWith(dir)) {
+                result.add(path);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,164 @@
+package com.example.fileMonitor.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 文件写入稳定检测
+ * 记录每个待处理文件的大小、修改时间，并尝试加共享锁探测写入方是否仍占用文件；
+ * 文件在静默期内保持不变且未被占用时才放行，检查由时间轮定时触发，不阻塞任何线程；
+ * 检查阶段队列已满时不在时间轮线程上等待，顺延一个复查间隔再投递
+ */
+@Slf4j
+public class FileStabilizer {
+    private final HashedWheelTimer timer;
+    private final IngestStage checkStage;
+    private final long checkInterval;
+    private final long quietPeriod;
+    private final long maxWait;
+    private final Map<Path, PendingFile> pending = new ConcurrentHashMap<>();
+
+    /**
+     * @param timer         时间轮
+     * @param checkStage    执行文件状态检查的阶段（检查涉及文件IO，不在时间轮线程上执行）
+     * @param checkInterval 复查间隔(ms)
+     * @param quietPeriod   文件保持不变多久视为写入完成(ms)
+     * @param maxWait       最长等待时间(ms)，超过后即使仍在变化也放行
+     */
+    public FileStabilizer(HashedWheelTimer timer, IngestStage checkStage,
+                          long checkInterval, long quietPeriod, long maxWait) {
+        this.timer = timer;
+        this.checkStage = checkStage;
+        this.checkInterval = checkInterval;
+        this.quietPeriod = quietPeriod;
+        this.maxWait = maxWait;
+    }
+
+    /**
+     * 开始跟踪文件，稳定后回调onStable，文件消失则回调onGone
+     */
+    public void track(Path filePath, Consumer<Path> onStable, Consumer<Path> onGone) {
+        long now = System.currentTimeMillis();
+        PendingFile pendingFile = new PendingFile(filePath, onStable, onGone, now);
+        if (pending.putIfAbsent(filePath, pendingFile) != null) {
+            log.debug("track 文件已在稳定检测中: {}", filePath);
+            return;
+        }
+        reschedule(pendingFile);
+    }
+
+    /**
+     * 当前等待写入完成的文件数
+     */
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    private void check(PendingFile pendingFile) {
+        Path filePath = pendingFile.filePath;
+        long now = System.currentTimeMillis();
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(filePath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            release(pendingFile);
+            log.info("check 文件已不存在: {}", filePath);
+            pendingFile.onGone.accept(filePath);
+            return;
+        } catch (IOException e) {
+            log.warn("check 读取文件属性失败，稍后重试: {}", filePath, e);
+            reschedule(pendingFile);
+            return;
+        }
+
+        long size = attributes.size();
+        long modified = attributes.lastModifiedTime().toMillis();
+        if (size != pendingFile.size || modified != pendingFile.modified) {
+            //文件仍在写入，重新计算静默期
+            pendingFile.size = size;
+            pendingFile.modified = modified;
+            pendingFile.quietSince = now;
+        } else if (now - pendingFile.quietSince >= quietPeriod && isUnlocked(filePath)) {
+            release(pendingFile);
+            log.info("check 文件写入完成，等待 {}ms: {}", now - pendingFile.firstSeen, filePath);
+            pendingFile.onStable.accept(filePath);
+            return;
+        }
+
+        if (now - pendingFile.firstSeen >= maxWait) {
+            release(pendingFile);
+            log.warn("check 文件超过最长等待时间 {}ms 仍未稳定，直接处理: {}", maxWait, filePath);
+            pendingFile.onStable.accept(filePath);
+            return;
+        }
+        reschedule(pendingFile);
+    }
+
+    private void reschedule(PendingFile pendingFile) {
+        timer.schedule(() -> dispatch(pendingFile), checkInterval);
+    }
+
+    /**
+     * 在时间轮线程上执行：把检查交给检查阶段，队列已满时顺延，不阻塞时间轮
+     */
+    private void dispatch(PendingFile pendingFile) {
+        if (!checkStage.trySubmit(() -> check(pendingFile))) {
+            log.debug("dispatch 稳定检测队列已满，顺延检查: {}", pendingFile.filePath);
+            reschedule(pendingFile);
+        }
+    }
+
+    private void release(PendingFile pendingFile) {
+        pending.remove(pendingFile.filePath, pendingFile);
+    }
+
+    /**
+     * 锁探测：能打开文件并获得共享锁，说明写入方已释放文件
+     * Windows下写入中的文件通常无法打开；其他平台依赖写入方使用文件锁
+     */
+    private boolean isUnlocked(Path filePath) {
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            FileLock lock = channel.tryLock(0L, Long.MAX_VALUE, true);
+            if (lock == null) {
+                return false;
+            }
+            lock.release();
+            return true;
+        } catch (OverlappingFileLockException e) {
+            return false;
+        } catch (IOException e) {
+            log.debug("isUnlocked 文件仍被占用: {}", filePath);
+            return false;
+        }
+    }
+
+    private static class PendingFile {
+        private final Path filePath;
+        private final Consumer<Path> onStable;
+        private final Consumer<Path> onGone;
+        private final long firstSeen;
+        private long size = -1;
+        private long modified = -1;
+        private long quietSince;
+
+        PendingFile(Path filePath, Consumer<Path> onStable, Consumer<Path> onGone, long firstSeen) {
+            this.filePath = filePath;
+            this.onStable = onStable;
+            this.onGone = onGone;
+            this.firstSeen = firstSeen;
+            this.quietSince = firstSeen;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.fileMonitor.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 时间轮定时器
+ * 单个线程按固定刻度推进，适合大量短延迟、允许刻度级误差的定时检查（如文件写入稳定检测）
+ * 到期任务在时间轮线程上执行，任务本身应尽快返回（耗时操作交给其他线程池）
+ */
+@Slf4j
+public class HashedWheelTimer {
+    private final long tickMillis;
+    private final List<Queue<Timeout>> wheel;
+    private final Queue<Timeout> incoming = new ConcurrentLinkedQueue<>();
+    private final Thread workerThread;
+    private volatile boolean running = true;
+    private long tick;
+
+    public HashedWheelTimer(String name, long tickMillis, int wheelSize) {
+        this.tickMillis = Math.max(tickMillis, 1);
+        int slots = Math.max(wheelSize, 1);
+        this.wheel = new ArrayList<>(slots);
+        for (int i = 0; i < slots; i++) {
+            wheel.add(new ArrayDeque<>());
+        }
+        this.workerThread = new Thread(this::run, name);
+        this.workerThread.setDaemon(true);
+        this.workerThread.start();
+    }
+
+    /**
+     * 延迟执行任务，实际执行时间向上取整到刻度
+     */
+    public void schedule(Runnable task, long delayMillis) {
+        if (!running) {
+            return;
+        }
+        incoming.add(new Timeout(task, Math.max(delayMillis, 0)));
+    }
+
+    public void stop() {
+        running = false;
+        workerThread.interrupt();
+    }
+
+    private void run() {
+        long startTime = System.nanoTime();
+        while (running) {
+            long deadline = startTime + TimeUnit.MILLISECONDS.toNanos((tick + 1) * tickMillis);
+            long sleepNanos = deadline - System.nanoTime();
+            if (sleepNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(sleepNanos);
+                } catch (InterruptedException e) {
+                    if (!running) {
+                        break;
+                    }
+                }
+            }
+            tick++;
+            transferIncoming();
+            expireBucket(wheel.get((int) (tick % wheel.size())));
+        }
+    }
+
+    /**
+     * 把新加入的任务放入对应的槽位，超过一圈的任务记录剩余圈数
+     */
+    private void transferIncoming() {
+        Timeout timeout;
+        while ((timeout = incoming.poll()) != null) {
+            long ticks = Math.max((timeout.delayMillis + tickMillis - 1) / tickMillis, 1);
+            timeout.remainingRounds = ticks / wheel.size();
+            wheel.get((int) ((tick + ticks) % wheel.size())).add(timeout);
+        }
+    }
+
+    private void expireBucket(Queue<Timeout> bucket) {
+        Iterator<Timeout> iterator = bucket.iterator();
+        while (iterator.hasNext()) {
+            Timeout timeout = iterator.next();
+            if (timeout.remainingRounds > 0) {
+                timeout.remainingRounds--;
+                continue;
+            }
+            iterator.remove();
+            try {
+                timeout.task.run();
+            } catch (Exception e) {
+                log.error("HashedWheelTimer 定时任务执行异常", e);
+            }
+        }
+    }
+
+    private static class Timeout {
+        private final Runnable task;
+        private final long delayMillis;
+        private long remainingRounds;
+
+        Timeout(Runnable task, long delayMillis) {
+            this.task = task;
+            this.delayMillis = delayMillis;
+        }
+    }
+}
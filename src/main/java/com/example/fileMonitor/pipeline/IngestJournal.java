@@ -0,0 +1,213 @@
+package com.example.fileMonitor.pipeline;
+
+import com.example.fileMonitor.modal.FileSnapshot;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+/**
+ * 本地采集日志（追加写）
+ * 每行一条记录，Tab分隔，路径放在最后；字段中的 \ Tab 回车 换行 转义为 \\ \t \r \n，保证一条记录只占一行：
+ * P  大小  修改时间  fileKey  内容摘要  记录ID  上传落后(1/0)  路径   —— 文件已采集
+ * D  路径                                         —— 文件已删除
+ * 启动时顺序回放得到最新状态，失效记录过多时重写为只含有效记录的新文件
+ */
+@Slf4j
+public class IngestJournal {
+    private static final String PUT = "P";
+    private static final String DELETE = "D";
+    private static final String NONE = "-";
+
+    private final Path journalPath;
+    private Writer writer;
+    private long appendedSinceCompact;
+
+    public IngestJournal(Path journalPath) {
+        this.journalPath = journalPath;
+    }
+
+    /**
+     * 回放日志，末尾不完整的记录（写入时进程退出）会被忽略
+     * @return 回放的记录数
+     */
+    public synchronized long load(BiConsumer<Path, FileSnapshot> onPut, Consumer<Path> onDelete) throws IOException {
+        long records = 0;
+        if (Files.exists(journalPath)) {
+            try (BufferedReader reader = Files.newBufferedReader(journalPath, StandardCharsets.UTF_8)) {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    try {
+                        if (line.startsWith(PUT + "\t")) {
+                            String[] fields = line.split("\t", 8);
+                            FileSnapshot snapshot = new FileSnapshot(
+                                    Long.parseLong(fields[1]),
+                                    Long.parseLong(fields[2]),
+                                    decode(fields[3]),
+                                    decode(fields[4]),
+                                    NONE.equals(fields[5]) ? null : Long.valueOf(fields[5]));
+                            snapshot.setUploadPending("1".equals(fields[6]));
+                            onPut.accept(Paths.get(unescape(fields[7])), snapshot);
+                            records++;
+                        } else if (line.startsWith(DELETE + "\t")) {
+                            onDelete.accept(Paths.get(unescape(line.substring(2))));
+                            records++;
+                        }
+                    } catch (RuntimeException e) {
+                        log.warn("load 忽略无法解析的日志记录: {}", line);
+                    }
+                }
+            }
+        } else if (journalPath.getParent() != null) {
+            Files.createDirectories(journalPath.getParent());
+        }
+        appendedSinceCompact = records;
+        openWriter(StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        return records;
+    }
+
+    public synchronized void appendPut(Path filePath, FileSnapshot snapshot) {
+        append(PUT + "\t" + snapshot.getSize() + "\t" + snapshot.getLastModified()
+                + "\t" + encode(snapshot.getFileKey()) + "\t" + encode(snapshot.getContentHash())
+                + "\t" + (snapshot.getRecordId() == null ? NONE : snapshot.getRecordId())
+                + "\t" + (snapshot.isUploadPending() ? "1" : "0")
+                + "\t" + escape(filePath.toString()));
+    }
+
+    public synchronized void appendDelete(Path filePath) {
+        append(DELETE + "\t" + escape(filePath.toString()));
+    }
+
+    /**
+     * 自上次压缩以来追加的记录数
+     */
+    public synchronized long getAppendedSinceCompact() {
+        return appendedSinceCompact;
+    }
+
+    /**
+     * 以当前有效记录重写日志：先写临时文件再原子替换
+     * 压缩期间持有锁，并发的追加会等待并写入新文件
+     */
+    public synchronized void compact(Map<Path, FileSnapshot> live) throws IOException {
+        Path tempPath = journalPath.resolveSibling(journalPath.getFileName() + ".compact");
+        closeWriter();
+        try {
+            writer = Files.newBufferedWriter(tempPath, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            appendedSinceCompact = 0;
+            for (Map.Entry<Path, FileSnapshot> entry : live.entrySet()) {
+                appendPut(entry.getKey(), entry.getValue());
+            }
+            closeWriter();
+            Files.move(tempPath, journalPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            closeWriter();
+            openWriter(StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        }
+    }
+
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private void append(String line) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.write(line);
+            writer.write('\n');
+            //只写入操作系统缓冲区，不强制落盘；丢失的尾部记录在下次启动时由扫描补齐
+            writer.flush();
+            appendedSinceCompact++;
+        } catch (IOException e) {
+            log.error("append 写入采集日志失败: {}", journalPath, e);
+        }
+    }
+
+    private void openWriter(StandardOpenOption... options) throws IOException {
+        writer = Files.newBufferedWriter(journalPath, StandardCharsets.UTF_8, options);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("closeWriter 关闭采集日志失败: {}", journalPath, e);
+            }
+            writer = null;
+        }
+    }
+
+    private static String encode(String value) {
+        return value == null ? NONE : escape(value);
+    }
+
+    private static String decode(String value) {
+        return NONE.equals(value) ? null : unescape(value);
+    }
+
+    /**
+     * 转义字段中的分隔符和换行（Linux 下文件名可以包含 Tab 和换行）
+     */
+    private static String escape(String value) {
+        StringBuilder builder = null;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            String replacement;
+            switch (c) {
+                case '\\': replacement = "\\\\"; break;
+                case '\t': replacement = "\\t"; break;
+                case '\r': replacement = "\\r"; break;
+                case '\n': replacement = "\\n"; break;
+                default: replacement = null;
+            }
+            if (replacement != null && builder == null) {
+                builder = new StringBuilder(value.length() + 8).append(value, 0, i);
+            }
+            if (builder != null) {
+                if (replacement != null) {
+                    builder.append(replacement);
+                } else {
+                    builder.append(c);
+                }
+            }
+        }
+        return builder == null ? value : builder.toString();
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) {
+            return value;
+        }
+        StringBuilder builder = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c != '\\' || i + 1 == value.length()) {
+                builder.append(c);
+                continue;
+            }
+            char next = value.charAt(++i);
+            switch (next) {
+                case 't': builder.append('\t'); break;
+                case 'r': builder.append('\r'); break;
+                case 'n': builder.append('\n'); break;
+                default: builder.append(next);
+            }
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,130 @@
+package com.example.fileMonitor.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 采集流水线中的单个处理阶段
+ * 每个阶段拥有独立的有界队列和工作线程池，队列满时阻塞提交方（背压）
+ */
+@Slf4j
+public class IngestStage {
+    private final String name;
+    private final ThreadPoolExecutor executor;
+    //队列已满、提交方被阻塞的次数
+    private final AtomicLong blockedCount = new AtomicLong();
+
+    public IngestStage(String name, int threads, int queueCapacity) {
+        this.name = name;
+        int poolSize = Math.max(threads, 1);
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(queueCapacity, 1)),
+                new StageThreadFactory(name),
+                (task, pool) -> {
+                    //队列已满：阻塞等待空位，而不是丢弃任务或在提交线程上执行
+                    if (pool.isShutdown()) {
+                        throw new RejectedExecutionException("阶段[" + name + "]已关闭");
+                    }
+                    blockedCount.incrementAndGet();
+                    try {
+                        pool.getQueue().put(task);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new RejectedExecutionException("阶段[" + name + "]提交被中断", e);
+                    }
+                });
+        //核心线程预先启动，trySubmit 直接放入队列即可被执行
+        this.executor.prestartAllCoreThreads();
+    }
+
+    /**
+     * 提交任务到本阶段，队列满时阻塞
+     */
+    public void submit(Runnable task) {
+        executor.execute(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("IngestStage[{}] 任务执行异常", name, e);
+            }
+        });
+    }
+
+    /**
+     * 不阻塞地提交任务，队列已满或阶段已关闭时返回false（供时间轮等不能阻塞的线程使用）
+     */
+    public boolean trySubmit(Runnable task) {
+        if (executor.isShutdown()) {
+            return false;
+        }
+        return executor.getQueue().offer(() -> {
+            try {
+                task.run();
+            } catch (Exception e) {
+                log.error("IngestStage[{}] 任务执行异常", name, e);
+            }
+        });
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * 当前排队中的任务数
+     */
+    public int getQueueDepth() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * 当前正在执行的任务数
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * 累计因队列已满而阻塞提交方的次数
+     */
+    public long getBlockedCount() {
+        return blockedCount.get();
+    }
+
+    public void shutdown(long timeoutMillis) {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                log.warn("IngestStage[{}] 关闭超时，剩余 {} 个任务未处理", name, executor.getQueue().size());
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            executor.shutdownNow();
+        }
+    }
+
+    private static class StageThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        StageThreadFactory(String stageName) {
+            this.prefix = "Ingest-" + stageName + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
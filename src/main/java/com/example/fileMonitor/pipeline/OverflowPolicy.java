@@ -0,0 +1,19 @@
+package com.example.fileMonitor.pipeline;
+
+/**
+ * 流水线积压达到上限后，新事件的处理方式
+ */
+public enum OverflowPolicy {
+    /**
+     * 阻塞投递线程直到有空位，监控事件在操作系统侧溢出后由对账扫描找回
+     */
+    BLOCK,
+    /**
+     * 写入本地溢出文件，积压消化后按顺序回放
+     */
+    SPILL,
+    /**
+     * 丢弃事件，改为对文件所在目录做对账扫描
+     */
+    DEFER
+}
@@ -0,0 +1,168 @@
+package com.example.fileMonitor.pipeline;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.util.function.BiConsumer;
+
+/**
+ * 本地溢出文件
+ * 流水线积压时事件按顺序追加写入（每行：事件类型 Tab 路径），积压消化后回放；
+ * 回放时先把当前文件改名为 .drain 再读取，回放期间的新事件写入新文件，进程退出后下次启动继续回放
+ */
+@Slf4j
+public class SpillQueue {
+    private final Path spillPath;
+    private final Path drainPath;
+    private Writer writer;
+    private long pending;
+    private long spilledCount;
+
+    public SpillQueue(Path spillPath) {
+        this.spillPath = spillPath;
+        this.drainPath = spillPath.resolveSibling(spillPath.getFileName() + ".drain");
+    }
+
+    /**
+     * 打开溢出文件，统计上次运行遗留的事件数
+     */
+    public synchronized void open() throws IOException {
+        if (spillPath.getParent() != null) {
+            Files.createDirectories(spillPath.getParent());
+        }
+        pending = countLines(drainPath) + countLines(spillPath);
+        openWriter();
+        if (pending > 0) {
+            log.info("open 溢出文件中有 {} 个未回放的事件: {}", pending, spillPath);
+        }
+    }
+
+    public synchronized void append(WatchEvent.Kind<?> kind, Path filePath) {
+        if (writer == null) {
+            throw new IllegalStateException("溢出文件未打开: " + spillPath);
+        }
+        try {
+            writer.write(kind.name() + "\t" + filePath + "\n");
+            writer.flush();
+            pending++;
+            spilledCount++;
+        } catch (IOException e) {
+            throw new IllegalStateException("写入溢出文件失败: " + spillPath, e);
+        }
+    }
+
+    /**
+     * 是否还有未回放的事件
+     */
+    public synchronized boolean isEmpty() {
+        return pending == 0;
+    }
+
+    public synchronized long getPending() {
+        return pending;
+    }
+
+    /**
+     * 累计写入的事件数
+     */
+    public synchronized long getSpilledCount() {
+        return spilledCount;
+    }
+
+    /**
+     * 按写入顺序回放事件，线程被中断时停止，未回放完的文件保留到下次
+     * @return 回放的事件数
+     */
+    public long drain(BiConsumer<WatchEvent.Kind<?>, Path> consumer) throws IOException {
+        synchronized (this) {
+            if (!Files.exists(drainPath)) {
+                if (pending == 0) {
+                    return 0;
+                }
+                closeWriter();
+                try {
+                    Files.move(spillPath, drainPath, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    openWriter();
+                }
+            }
+        }
+        long count = 0;
+        try (BufferedReader reader = Files.newBufferedReader(drainPath, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new InterruptedIOException("溢出文件回放被中断");
+                }
+                int tab = line.indexOf('\t');
+                WatchEvent.Kind<?> kind = tab > 0 ? parseKind(line.substring(0, tab)) : null;
+                if (kind == null) {
+                    log.warn("drain 忽略无法解析的溢出记录: {}", line);
+                } else {
+                    consumer.accept(kind, Paths.get(line.substring(tab + 1)));
+                    count++;
+                }
+                synchronized (this) {
+                    pending--;
+                }
+            }
+        }
+        Files.delete(drainPath);
+        return count;
+    }
+
+    public synchronized void close() {
+        closeWriter();
+    }
+
+    private void openWriter() throws IOException {
+        writer = Files.newBufferedWriter(spillPath, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                log.warn("closeWriter 关闭溢出文件失败: {}", spillPath, e);
+            }
+            writer = null;
+        }
+    }
+
+    private static long countLines(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            long lines = 0;
+            while (reader.readLine() != null) {
+                lines++;
+            }
+            return lines;
+        }
+    }
+
+    private static WatchEvent.Kind<?> parseKind(String name) {
+        if (StandardWatchEventKinds.ENTRY_CREATE.name().equals(name)) {
+            return StandardWatchEventKinds.ENTRY_CREATE;
+        } else if (StandardWatchEventKinds.ENTRY_MODIFY.name().equals(name)) {
+            return StandardWatchEventKinds.ENTRY_MODIFY;
+        } else if (StandardWatchEventKinds.ENTRY_DELETE.name().equals(name)) {
+            return StandardWatchEventKinds.ENTRY_DELETE;
+        }
+        return null;
+    }
+}
@@ -0,0 +1,199 @@
+package com.example.fileMonitor.pipeline;
+
+import com.example.fileMonitor.extract.ContentExtractorRegistry;
+import com.example.fileMonitor.extract.TextIngestProperties;
+import com.example.fileMonitor.modal.FileMonitor;
+import com.example.fileMonitor.modal.FileSnapshot;
+import com.example.fileMonitor.modal.IngestTask;
+import com.example.fileMonitor.service.FileMonitorChunkService;
+import com.example.fileMonitor.service.FileMonitorService;
+import com.example.utils.FileAccess;
+import com.example.utils.TextChunkReader;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 追加写日志文件的增量采集
+ * 快照中的大小即已采集的字节偏移，文件变大时只按定位读取新增的完整行，作为新分块追加保存；
+ * fileKey（inode等）变化视为日志轮转，文件变小视为被截断，两种情况都重新完整采集
+ */
+@Component
+@Slf4j
+public class TailFollower {
+
+    /**
+     * plan 返回值：需要重新完整采集
+     */
+    public static final long FULL = -1;
+
+    @Autowired
+    private FileMonitorService fileMonitorService;
+
+    @Autowired
+    private FileMonitorChunkService fileMonitorChunkService;
+
+    @Autowired
+    private TextIngestProperties textIngestProperties;
+
+    @Value("${file.monitor.tail.enabled:true}")
+    private boolean enabled;
+
+    @Value("${file.monitor.tail.extensions:log}")
+    private String extensions;
+
+    @Value("${file.monitor.tail.max-line:1048576}")
+    private long maxLine;
+
+    private final Set<String> tailExtensions = new HashSet<>();
+
+    @PostConstruct
+    public void init() {
+        for (String item : extensions.split(",")) {
+            String value = item.trim().toLowerCase(Locale.ROOT);
+            if (!value.isEmpty()) {
+                tailExtensions.add(value.startsWith(".") ? value.substring(1) : value);
+            }
+        }
+    }
+
+    /**
+     * 是否按追加写日志增量采集
+     */
+    public boolean isTailFile(Path filePath) {
+        return enabled && tailExtensions.contains(ContentExtractorRegistry.getExtension(filePath));
+    }
+
+    /**
+     * 判断本次需要采集的范围
+     * @return FULL 表示轮转或截断，需要重新完整采集；否则为本次采集的结束位置，
+     *         等于已采集偏移时表示还没有新的完整行
+     */
+    public long plan(Path filePath, FileSnapshot previous, FileSnapshot current) throws IOException {
+        if (previous.getFileKey() != null && current.getFileKey() != null
+                && !previous.getFileKey().equals(current.getFileKey())) {
+            log.info("plan 日志文件已轮转，重新完整采集: {}", filePath);
+            return FULL;
+        }
+        if (current.getSize() < previous.getSize()) {
+            log.info("plan 日志文件已被截断（{} -> {}），重新完整采集: {}", previous.getSize(), current.getSize(), filePath);
+            return FULL;
+        }
+        if (current.getSize() == previous.getSize()) {
+            return previous.getSize();
+        }
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            long end = lastLineEnd(channel, previous.getSize(), current.getSize());
+            if (end == previous.getSize() && maxLine > 0 && current.getSize() - previous.getSize() >= maxLine) {
+                //超长且没有换行的内容不再等待，直接采集到最后一个完整的UTF-8字符
+                return charBoundary(channel, previous.getSize(), current.getSize());
+            }
+            return end;
+        }
+    }
+
+    /**
+     * 从后向前查找 [from, to) 中最后一个换行符，返回其后的位置；没有换行时返回from
+     */
+    private long lastLineEnd(FileChannel channel, long from, long to) throws IOException {
+        ByteBuffer buffer = FileAccess.bufferPool().acquire();
+        try {
+            long end = to;
+            while (end > from) {
+                long start = Math.max(from, end - buffer.capacity());
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit((int) (end - start));
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, start + buffer.position()) < 0) {
+                        break;
+                    }
+                }
+                for (int i = buffer.position() - 1; i >= 0; i--) {
+                    if (buffer.get(i) == '\n') {
+                        return start + i + 1;
+                    }
+                }
+                end = start;
+            }
+            return from;
+        } finally {
+            FileAccess.bufferPool().release(buffer);
+        }
+    }
+
+    /**
+     * 位置to处截断时不拆开多字节的UTF-8字符：末尾的字符不完整时退回到该字符的起始位置，不早于from
+     */
+    private long charBoundary(FileChannel channel, long from, long to) throws IOException {
+        int length = (int) Math.min(4, to - from);
+        ByteBuffer tail = ByteBuffer.allocate(length);
+        while (tail.hasRemaining()) {
+            if (channel.read(tail, to - length + tail.position()) < 0) {
+                return to;
+            }
+        }
+        //从后向前找到最后一个字符的首字节（非 10xxxxxx），判断其后的字节是否足够
+        for (int i = length - 1; i >= 0; i--) {
+            int b = tail.get(i) & 0xFF;
+            if ((b & 0xC0) != 0x80) {
+                int charLength = b < 0x80 ? 1 : (b & 0xE0) == 0xC0 ? 2 : (b & 0xF0) == 0xE0 ? 3 : (b & 0xF8) == 0xF0 ? 4 : 1;
+                return i + charLength > length ? to - length + i : to;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * 保存 [appendFrom, appendTo) 范围的新增内容：追加分块并更新记录的大小和修改时间
+     */
+    public void append(IngestTask task) throws Exception {
+        Path filePath = task.getFilePath();
+        FileMonitor fileMonitor = task.getFileMonitor();
+        int chunkSize = getChunkSize(filePath);
+        long start = System.currentTimeMillis();
+        int count;
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ);
+             TextChunkReader chunks = new TextChunkReader(
+                     FileAccess.openStream(channel, task.getAppendFrom(), task.getAppendTo()),
+                     StandardCharsets.UTF_8, chunkSize)) {
+            count = fileMonitorChunkService.appendChunks(fileMonitor.getId(), chunks);
+        }
+        fileMonitorService.updateTailProgress(fileMonitor);
+        log.info("append 日志新增 {} 字节，追加 {} 块，耗时 {}ms: {}", task.getAppendTo() - task.getAppendFrom(),
+                count, System.currentTimeMillis() - start, filePath);
+    }
+
+    /**
+     * 组装增量采集的记录
+     */
+    public FileMonitor toFileMonitor(Path filePath, FileSnapshot snapshot) {
+        FileMonitor fileMonitor = new FileMonitor();
+        fileMonitor.setId(snapshot.getRecordId());
+        fileMonitor.setFilePath(filePath.toAbsolutePath().toString());
+        fileMonitor.setFileSize(snapshot.getSize());
+        fileMonitor.setLastModified(new Date(snapshot.getLastModified()));
+        return fileMonitor;
+    }
+
+    /**
+     * 完整采集时全文总是分块保存，后续新增内容接在其后
+     * 不受 max-size、chunked 限制：否则首次采集时超过上限的日志只有预览，之后追加的分块与预览之间缺少中间的内容
+     */
+    public int getChunkSize(Path filePath) {
+        return textIngestProperties.resolve(ContentExtractorRegistry.getExtension(filePath)).getChunkSize();
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.fileMonitor.service;
+
+import com.example.utils.TextChunkReader;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+@Service
+public interface FileMonitorChunkService {
+    /**
+     * 用新内容替换文件的全部分块
+     * @return 写入的块数
+     */
+    int replaceChunks(Long fileId, TextChunkReader chunks) throws IOException, SQLException;
+
+    /**
+     * 在文件已有分块之后追加新分块
+     * @return 写入的块数
+     */
+    int appendChunks(Long fileId, TextChunkReader chunks) throws IOException, SQLException;
+}
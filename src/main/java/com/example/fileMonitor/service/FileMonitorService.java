@@ -14,6 +14,8 @@ public interface FileMonitorService {
 
     int updateFileContent(FileMonitor fileMonitor) throws SQLException;
 
+    int updateTailProgress(FileMonitor fileMonitor) throws SQLException;
+
     List<FileMonitor> selectNotUploaded() throws SQLException;
 
     int markAsUploaded(Long id) throws SQLException;
@@ -26,6 +28,11 @@ public interface FileMonitorService {
 
     List<FileMonitor> selectByFilePath(String filePath) throws SQLException;
 
+    /**
+     * 批量查询文件记录（不含文件内容），用于启动扫描时判断哪些文件已采集
+     */
+    List<FileMonitor> selectByFilePaths(List<String> filePaths) throws SQLException;
+
     int countActiveFiles() throws SQLException;
 
     int countUploadedFiles() throws SQLException;
@@ -0,0 +1,76 @@
+package com.example.fileMonitor.service.impl;
+
+import com.example.fileMonitor.dao.FileMonitorChunkDao;
+import com.example.fileMonitor.modal.FileMonitorChunk;
+import com.example.fileMonitor.service.FileMonitorChunkService;
+import com.example.utils.TextChunkReader;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.sql.SQLException;
+
+@Service
+@Slf4j
+public class FileMonitorChunkServiceImpl implements FileMonitorChunkService {
+    @Autowired
+    SqlSessionFactory sqlSessionFactory;
+
+    @Autowired
+    FileMonitorChunkDao fileMonitorChunkDao;
+
+    @Value("${file.monitor.text.batch-size:50}")
+    private int batchSize;
+
+    /**
+     * 使用BATCH执行器删除旧分块并批量插入，每 batchSize 块提交一次批处理，
+     * 内存中最多保留一批分块
+     */
+    @Override
+    public int replaceChunks(Long fileId, TextChunkReader chunks) throws IOException, SQLException {
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            FileMonitorChunkDao chunkDao = session.getMapper(FileMonitorChunkDao.class);
+            chunkDao.deleteByFileId(fileId);
+            int count = writeChunks(session, chunkDao, fileId, 0, chunks);
+            session.commit();
+            return count;
+        }
+    }
+
+    /**
+     * 在已有分块之后批量追加
+     */
+    @Override
+    public int appendChunks(Long fileId, TextChunkReader chunks) throws IOException, SQLException {
+        Integer maxIndex = fileMonitorChunkDao.selectMaxChunkIndex(fileId);
+        try (SqlSession session = sqlSessionFactory.openSession(ExecutorType.BATCH, false)) {
+            FileMonitorChunkDao chunkDao = session.getMapper(FileMonitorChunkDao.class);
+            int count = writeChunks(session, chunkDao, fileId, maxIndex == null ? 0 : maxIndex + 1, chunks);
+            session.commit();
+            return count;
+        }
+    }
+
+    private int writeChunks(SqlSession session, FileMonitorChunkDao chunkDao, Long fileId, int startIndex,
+                            TextChunkReader chunks) throws IOException, SQLException {
+        int count = 0;
+        String content;
+        while ((content = chunks.next()) != null) {
+            FileMonitorChunk chunk = new FileMonitorChunk();
+            chunk.setFileId(fileId);
+            chunk.setChunkIndex(startIndex + count++);
+            chunk.setContent(content);
+            chunkDao.saveChunk(chunk);
+            if (count % Math.max(batchSize, 1) == 0) {
+                session.flushStatements();
+            }
+        }
+        session.flushStatements();
+        return count;
+    }
+}
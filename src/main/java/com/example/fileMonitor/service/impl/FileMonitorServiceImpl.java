@@ -8,6 +8,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.sql.SQLException;
+import java.util.ArrayList;
 import java.util.List;
 
 @Service
@@ -31,6 +32,11 @@ public class FileMonitorServiceImpl implements FileMonitorService {
         return fileMonitorDao.updateFileContent(fileMonitor);
     }
 
+    @Override
+    public int updateTailProgress(FileMonitor fileMonitor) throws SQLException{
+        return fileMonitorDao.updateTailProgress(fileMonitor);
+    }
+
     @Override
     public List<FileMonitor> selectNotUploaded() throws SQLException{
         return fileMonitorDao.selectNotUploaded();
@@ -61,6 +67,14 @@ public class FileMonitorServiceImpl implements FileMonitorService {
         return fileMonitorDao.selectByFilePath(filePath);
     }
 
+    @Override
+    public List<FileMonitor> selectByFilePaths(List<String> filePaths) throws SQLException {
+        if (filePaths == null || filePaths.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return fileMonitorDao.selectByFilePaths(filePaths);
+    }
+
     @Override
     public int countActiveFiles() throws SQLException {
         return fileMonitorDao.countActiveFiles();
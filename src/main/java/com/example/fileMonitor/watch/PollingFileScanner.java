@@ -0,0 +1,262 @@
+package com.example.fileMonitor.watch;
+
+import com.example.fileMonitor.match.FileMatcher;
+import com.example.fileMonitor.pipeline.FileIngestPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 轮询扫描（适用于NFS/CIFS等WatchService收不到事件的网络文件系统）
+ * 按 file.monitor.scan-interval 周期比对内存索引（路径 -> 大小、修改时间），生成新增/修改/删除事件投递到流水线；
+ * 目录修改时间未变化时不重新列目录，只检查已知文件的属性；
+ * 索引中记录文件名可能匹配的所有文件，大小、时间等属性规则在每次产生事件前判断，
+ * 暂不满足的文件（如未达到最小文件年龄）在之后的轮询中继续检查
+ */
+@Component
+@Slf4j
+public class PollingFileScanner {
+
+    @Autowired
+    private FileIngestPipeline fileIngestPipeline;
+
+    @Autowired
+    private FileMatcher fileMatcher;
+
+    @Value("${file.monitor.scan-interval:1000}")
+    private long scanInterval;
+
+    @Value("${file.monitor.recursive:true}")
+    private boolean recursive;
+
+    //目录修改时间精度可能只有秒级，修改时间距上次列目录太近时仍重新列目录
+    private static final long DIRECTORY_MTIME_SLACK = 2000;
+
+    private final Map<Path, DirectoryState> directories = new HashMap<>();
+    private final Map<Path, FileState> files = new HashMap<>();
+    private ScheduledExecutorService executor;
+
+    /**
+     * 建立初始索引（不产生事件，已有文件由启动扫描处理），然后开始周期轮询
+     */
+    public void start(List<Path> roots) {
+        long start = System.currentTimeMillis();
+        for (Path root : roots) {
+            listDirectory(root, false);
+        }
+        log.info("start 轮询索引建立完成：目录 {} 个，文件 {} 个，耗时 {}ms，轮询间隔 {}ms",
+                directories.size(), files.size(), System.currentTimeMillis() - start, scanInterval);
+        executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "File-Polling-Thread");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::poll, scanInterval, scanInterval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+
+    private void poll() {
+        try {
+            long start = System.currentTimeMillis();
+            int listed = 0;
+            //先处理目录：修改时间变化的目录重新列出，发现新增/删除的文件和子目录
+            for (Path dir : new ArrayList<>(directories.keySet())) {
+                DirectoryState state = directories.get(dir);
+                if (state == null) {
+                    continue; //已随父目录一起移除
+                }
+                long modified;
+                try {
+                    modified = Files.getLastModifiedTime(dir).toMillis();
+                } catch (NoSuchFileException e) {
+                    removeDirectory(dir);
+                    continue;
+                }
+                if (modified != state.modified || modified >= state.listedAt - DIRECTORY_MTIME_SLACK) {
+                    listDirectory(dir, true);
+                    listed++;
+                }
+            }
+            //再检查已知文件的大小和修改时间，尚未满足属性规则的文件重新判断
+            int changed = 0;
+            for (Map.Entry<Path, FileState> entry : files.entrySet()) {
+                Path file = entry.getKey();
+                FileState state = entry.getValue();
+                try {
+                    BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                    long modified = attrs.lastModifiedTime().toMillis();
+                    boolean modifiedSinceLast = attrs.size() != state.size || modified != state.modified;
+                    if (modifiedSinceLast) {
+                        state.size = attrs.size();
+                        state.modified = modified;
+                    }
+                    if ((modifiedSinceLast || !state.matched) && emitIfMatches(file, attrs, state)) {
+                        changed++;
+                    }
+                } catch (NoSuchFileException e) {
+                    //删除由所在目录的重新列出处理
+                }
+            }
+            log.debug("poll 轮询完成：重新列出目录 {} 个，修改文件 {} 个，耗时 {}ms",
+                    listed, changed, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("poll 轮询扫描异常", e);
+        }
+    }
+
+    /**
+     * 列出目录并与索引比对
+     * @param emitEvents 是否为差异生成事件（建立初始索引时为false）
+     */
+    private void listDirectory(Path dir, boolean emitEvents) {
+        DirectoryState state = directories.get(dir);
+        if (state == null) {
+            state = new DirectoryState();
+            directories.put(dir, state);
+        }
+        long listedAt = System.currentTimeMillis();
+        Set<Path> children = new HashSet<>();
+        List<Path> newDirectories = new ArrayList<>();
+        try {
+            state.modified = Files.getLastModifiedTime(dir).toMillis();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path child : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(child, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        if (recursive) {
+                            children.add(child);
+                            if (!directories.containsKey(child)) {
+                                newDirectories.add(child);
+                            }
+                        }
+                    } else if (attrs.isRegularFile() && fileMatcher.mayMatch(child)) {
+                        children.add(child);
+                        if (!files.containsKey(child)) {
+                            FileState fileState = new FileState(attrs.size(), attrs.lastModifiedTime().toMillis());
+                            files.put(child, fileState);
+                            if (emitEvents) {
+                                emitIfMatches(child, attrs, fileState);
+                            } else {
+                                //建立初始索引时已匹配的文件由启动扫描处理
+                                fileState.matched = fileMatcher.matches(child, attrs);
+                            }
+                        }
+                    }
+                }
+            }
+        } catch (NoSuchFileException e) {
+            removeDirectory(dir);
+            return;
+        } catch (IOException e) {
+            log.warn("listDirectory 无法列出目录: {}", dir, e);
+            return;
+        }
+        //上次列出时存在、本次已不存在的文件和子目录
+        for (Path previous : state.children) {
+            if (!children.contains(previous)) {
+                if (directories.containsKey(previous)) {
+                    removeDirectory(previous);
+                } else {
+                    removeFile(previous);
+                }
+            }
+        }
+        state.children = children;
+        state.listedAt = listedAt;
+        for (Path newDirectory : newDirectories) {
+            listDirectory(newDirectory, emitEvents);
+        }
+    }
+
+    /**
+     * 移除目录及其下所有子目录和文件，文件生成删除事件
+     */
+    private void removeDirectory(Path dir) {
+        DirectoryState state = directories.remove(dir);
+        if (state == null) {
+            return;
+        }
+        for (Path child : state.children) {
+            if (directories.containsKey(child)) {
+                removeDirectory(child);
+            } else {
+                removeFile(child);
+            }
+        }
+    }
+
+    /**
+     * 满足匹配规则（含属性规则）时产生事件：第一次匹配为新增，之后为修改
+     * @return 是否产生了事件
+     */
+    private boolean emitIfMatches(Path file, BasicFileAttributes attrs, FileState state) {
+        if (!fileMatcher.matches(file, attrs)) {
+            return false;
+        }
+        emit(state.matched ? StandardWatchEventKinds.ENTRY_MODIFY : StandardWatchEventKinds.ENTRY_CREATE, file);
+        state.matched = true;
+        return true;
+    }
+
+    /**
+     * 移除文件，曾经匹配过（已投递过事件）的文件生成删除事件
+     */
+    private void removeFile(Path file) {
+        FileState state = files.remove(file);
+        if (state != null && state.matched) {
+            emit(StandardWatchEventKinds.ENTRY_DELETE, file);
+        }
+    }
+
+    private void emit(WatchEvent.Kind<?> kind, Path file) {
+        fileIngestPipeline.submit(kind, file);
+    }
+
+    private static class DirectoryState {
+        private long modified = -1;
+        private long listedAt;
+        private Set<Path> children = new HashSet<>();
+    }
+
+    private static class FileState {
+        private long size;
+        private long modified;
+        private boolean matched;    //是否已满足匹配规则并投递过事件
+
+        FileState(long size, long modified) {
+            this.size = size;
+            this.modified = modified;
+        }
+    }
+}
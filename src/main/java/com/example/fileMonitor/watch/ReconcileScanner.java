@@ -0,0 +1,217 @@
+package com.example.fileMonitor.watch;
+
+import com.example.fileMonitor.modal.FileSnapshot;
+import com.example.fileMonitor.match.FileMatcher;
+import com.example.fileMonitor.pipeline.FileIngestPipeline;
+import com.example.fileMonitor.pipeline.FileSnapshotIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 对账扫描
+ * 监控事件溢出(OVERFLOW)后，将目录树与已采集快照比对，只把新增、变化、删除的文件重新投递到流水线；
+ * 扫描按目录增量进行并限速，已采集且未变化的文件不会被重复处理；
+ * 遍历到的目录交给目录回调（监听模式下注册事件丢失期间新建、尚未监控的子目录）
+ */
+@Component
+@Slf4j
+public class ReconcileScanner {
+
+    @Autowired
+    private FileIngestPipeline fileIngestPipeline;
+
+    @Autowired
+    private FileMatcher fileMatcher;
+
+    @Autowired
+    private FileSnapshotIndex fileSnapshotIndex;
+
+    @Value("${file.monitor.recursive:true}")
+    private boolean recursive;
+
+    @Value("${file.monitor.reconcile.max-files-per-second:2000}")
+    private int maxFilesPerSecond;
+
+    private final BlockingQueue<Path> requests = new LinkedBlockingQueue<>();
+    private final Set<Path> requested = ConcurrentHashMap.newKeySet();
+    private Thread workerThread;
+    private volatile boolean running;
+    //遍历到的每个目录的回调，轮询模式下为null
+    private volatile Consumer<Path> directoryHandler;
+
+    @PostConstruct
+    public void start() {
+        //积压策略为DEFER时，被丢弃事件所在的目录交给对账扫描
+        fileIngestPipeline.setDeferHandler(this::requestReconcile);
+        running = true;
+        workerThread = new Thread(this::run, "File-Reconcile-Thread");
+        workerThread.setDaemon(true);
+        workerThread.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (workerThread != null) {
+            workerThread.interrupt();
+        }
+    }
+
+    /**
+     * 设置目录回调，对账遍历到的每个目录（含对账目录本身）都会回调
+     */
+    public void setDirectoryHandler(Consumer<Path> directoryHandler) {
+        this.directoryHandler = directoryHandler;
+    }
+
+    /**
+     * 申请对账目录，同一目录在处理前重复申请只扫描一次
+     */
+    public void requestReconcile(Path dir) {
+        if (requested.add(dir)) {
+            requests.add(dir);
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Path first = requests.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                //一次溢出通常会同时标记多个目录，合并后只扫描最上层的目录
+                List<Path> dirs = new ArrayList<>();
+                dirs.add(first);
+                requests.drainTo(dirs);
+                requested.removeAll(dirs);
+                for (Path dir : topLevel(dirs)) {
+                    reconcile(dir);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("run 对账扫描异常", e);
+            }
+        }
+    }
+
+    private List<Path> topLevel(List<Path> dirs) {
+        List<Path> result = new ArrayList<>();
+        for (Path dir : dirs) {
+            boolean covered = false;
+            for (Path other : dirs) {
+                if (other != dir && recursive && dir.startsWith(other) && !dir.equals(other)) {
+                    covered = true;
+                    break;
+                }
+            }
+            if (!covered && !result.contains(dir)) {
+                result.add(dir);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * 对账单个目录：目录树与快照比对，只投递差异
+     */
+    public void reconcile(Path dir) throws IOException {
+        long start = System.nanoTime();
+        Set<Path> seen = new HashSet<>();
+        int[] counts = new int[3]; //新增、修改、删除
+        if (Files.isDirectory(dir)) {
+            int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+            Consumer<Path> onDirectory = directoryHandler;
+            Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) {
+                    if (onDirectory != null) {
+                        onDirectory.accept(subDir);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (!attrs.isRegularFile()) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    seen.add(file);
+                    throttle(start, seen.size());
+                    if (fileIngestPipeline.isInFlight(file) || !fileMatcher.matches(file, attrs)) {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    FileSnapshot snapshot = fileSnapshotIndex.get(file);
+                    FileSnapshot current = FileSnapshotIndex.of(attrs);
+                    if (snapshot == null) {
+                        fileIngestPipeline.submitAndWait(StandardWatchEventKinds.ENTRY_CREATE, file);
+                        counts[0]++;
+                    } else if (!snapshot.sameAs(current.getSize(), current.getLastModified(), current.getFileKey())) {
+                        fileIngestPipeline.submitAndWait(StandardWatchEventKinds.ENTRY_MODIFY, file);
+                        counts[1]++;
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    log.warn("reconcile 无法访问: {}", file, e);
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        //快照中有、目录中已不存在的文件
+        for (Path file : fileSnapshotIndex.listUnder(dir)) {
+            if (!seen.contains(file) && !Files.exists(file) && !fileIngestPipeline.isInFlight(file)) {
+                fileIngestPipeline.submitAndWait(StandardWatchEventKinds.ENTRY_DELETE, file);
+                counts[2]++;
+            }
+        }
+        log.info("reconcile 对账完成: {}，检查 {} 个文件，新增 {}，修改 {}，删除 {}，耗时 {}ms",
+                dir, seen.size(), counts[0], counts[1], counts[2],
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * 按每秒最多检查的文件数限速
+     */
+    private void throttle(long startNanos, long processed) {
+        if (maxFilesPerSecond <= 0) {
+            return;
+        }
+        long expected = processed * TimeUnit.SECONDS.toNanos(1) / maxFilesPerSecond;
+        long elapsed = System.nanoTime() - startNanos;
+        if (expected > elapsed) {
+            try {
+                TimeUnit.NANOSECONDS.sleep(expected - elapsed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.fileMonitor.watch;
+
+import com.example.fileMonitor.modal.FileMonitor;
+import com.example.fileMonitor.modal.FileSnapshot;
+import com.example.fileMonitor.match.FileMatcher;
+import com.example.fileMonitor.pipeline.FileIngestPipeline;
+import com.example.fileMonitor.pipeline.FileSnapshotIndex;
+import com.example.fileMonitor.service.FileMonitorService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 启动扫描
+ * 并行遍历监控目录，按批次用 IN 查询判断哪些文件已采集，只把新增或已变化的文件投递到流水线
+ */
+@Component
+@Slf4j
+public class StartupScanner {
+
+    @Autowired
+    private FileIngestPipeline fileIngestPipeline;
+
+    @Autowired
+    private FileMatcher fileMatcher;
+
+    @Autowired
+    private FileSnapshotIndex fileSnapshotIndex;
+
+    @Autowired
+    private FileMonitorService fileMonitorService;
+
+    @Value("${file.monitor.recursive:true}")
+    private boolean recursive;
+
+    @Value("${file.monitor.startup-scan.threads:4}")
+    private int scanThreads;
+
+    @Value("${file.monitor.startup-scan.batch-size:500}")
+    private int batchSize;
+
+    @Value("${file.monitor.startup-scan.progress-interval:10000}")
+    private int progressInterval;
+
+    /**
+     * 扫描所有监控目录
+     */
+    public void scan(List<Path> roots) {
+        log.info("scan 开始扫描目录中的现有文件: {}", roots);
+        long start = System.nanoTime();
+        ScanContext context = new ScanContext();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(scanThreads, 1));
+        try {
+            for (Path root : roots) {
+                pool.invoke(new DirectoryTask(root, context));
+            }
+            context.flush();
+        } catch (Exception e) {
+            log.error("scan 扫描目录失败", e);
+        } finally {
+            pool.shutdown();
+        }
+        long elapsedMillis = Math.max(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), 1);
+        log.info("scan 目录扫描完成：文件 {} 个（匹配 {} 个），新增 {}，变化 {}，未变化 {}，耗时 {}ms，{} 个文件/秒",
+                context.listed.get(), context.matched.get(), context.created.get(), context.modified.get(),
+                context.unchanged.get(), elapsedMillis, context.listed.get() * 1000 / elapsedMillis);
+    }
+
+    /**
+     * 遍历单个目录，子目录拆分为并行任务
+     */
+    private class DirectoryTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final Path dir;
+        private final ScanContext context;
+
+        DirectoryTask(Path dir, ScanContext context) {
+            this.dir = dir;
+            this.context = context;
+        }
+
+        @Override
+        protected void compute() {
+            List<DirectoryTask> subTasks = new ArrayList<>();
+            try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir)) {
+                for (Path path : stream) {
+                    BasicFileAttributes attrs;
+                    try {
+                        attrs = Files.readAttributes(path, BasicFileAttributes.class);
+                    } catch (IOException e) {
+                        log.warn("scan 无法读取文件属性: {}", path, e);
+                        continue;
+                    }
+                    if (attrs.isDirectory()) {
+                        if (recursive) {
+                            subTasks.add(new DirectoryTask(path, context));
+                        }
+                    } else if (attrs.isRegularFile()) {
+                        context.add(path, attrs);
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("scan 无法遍历目录: {}", dir, e);
+            }
+            invokeAll(subTasks);
+        }
+    }
+
+    /**
+     * 扫描过程中共享的批次与计数
+     */
+    private class ScanContext {
+        private final AtomicLong listed = new AtomicLong();
+        private final AtomicLong matched = new AtomicLong();
+        private final AtomicLong created = new AtomicLong();
+        private final AtomicLong modified = new AtomicLong();
+        private final AtomicLong unchanged = new AtomicLong();
+        private Map<Path, BasicFileAttributes> batch = new HashMap<>();
+
+        void add(Path file, BasicFileAttributes attrs) {
+            long count = listed.incrementAndGet();
+            if (progressInterval > 0 && count % progressInterval == 0) {
+                log.info("scan 已扫描 {} 个文件，新增 {}，变化 {}，未变化 {}",
+                        count, created.get(), modified.get(), unchanged.get());
+            }
+            if (!fileMatcher.matches(file, attrs)) {
+                return;
+            }
+            matched.incrementAndGet();
+            if (fileSnapshotIndex.isUnchanged(file, FileSnapshotIndex.of(attrs))) {
+                //采集日志中已有且未变化，无需查询数据库
+                unchanged.incrementAndGet();
+                return;
+            }
+            Map<Path, BasicFileAttributes> full = null;
+            synchronized (this) {
+                batch.put(file, attrs);
+                if (batch.size() >= batchSize) {
+                    full = batch;
+                    batch = new HashMap<>();
+                }
+            }
+            if (full != null) {
+                process(full);
+            }
+        }
+
+        void flush() {
+            Map<Path, BasicFileAttributes> rest;
+            synchronized (this) {
+                rest = batch;
+                batch = new HashMap<>();
+            }
+            if (!rest.isEmpty()) {
+                process(rest);
+            }
+        }
+
+        /**
+         * 一次 IN 查询判断整批文件的采集状态
+         */
+        private void process(Map<Path, BasicFileAttributes> files) {
+            Map<String, FileMonitor> records = new HashMap<>();
+            try {
+                List<String> filePaths = new ArrayList<>(files.size());
+                for (Path file : files.keySet()) {
+                    filePaths.add(file.toString());
+                }
+                for (FileMonitor record : fileMonitorService.selectByFilePaths(filePaths)) {
+                    records.put(record.getFilePath(), record);
+                }
+            } catch (Exception e) {
+                log.error("scan 批量查询文件记录失败，本批 {} 个文件跳过", files.size(), e);
+                return;
+            }
+            for (Map.Entry<Path, BasicFileAttributes> entry : files.entrySet()) {
+                Path file = entry.getKey();
+                BasicFileAttributes attrs = entry.getValue();
+                FileMonitor record = records.get(file.toString());
+                if (record == null) {
+                    //数据库中已没有记录（如被清理），本地日志中的快照作废
+                    fileSnapshotIndex.remove(file);
+                    fileIngestPipeline.submitAndWait(StandardWatchEventKinds.ENTRY_CREATE, file);
+                    created.incrementAndGet();
+                } else if (isChanged(record, attrs)) {
+                    FileSnapshot snapshot = fileSnapshotIndex.get(file);
+                    if (snapshot == null) {
+                        //记录数据库ID和内容摘要，持久化时按更新处理，内容未变化时跳过
+                        snapshot = new FileSnapshot(record.getFileSize() == null ? -1 : record.getFileSize(),
+                                record.getLastModified() == null ? -1 : record.getLastModified().getTime(),
+                                null, record.getContentHash(), record.getId());
+                    }
+                    //上次未上传成功的日志文件，增量采集时整体重新上传
+                    snapshot.setUploadPending(!Boolean.TRUE.equals(record.getFtpUploaded()));
+                    fileSnapshotIndex.put(file, snapshot);
+                    fileIngestPipeline.submitAndWait(StandardWatchEventKinds.ENTRY_MODIFY, file);
+                    modified.incrementAndGet();
+                } else {
+                    //已采集且未变化，记录快照供对账和下次启动使用
+                    FileSnapshot snapshot = FileSnapshotIndex.of(attrs);
+                    snapshot.setContentHash(record.getContentHash());
+                    snapshot.setRecordId(record.getId());
+                    snapshot.setUploadPending(!Boolean.TRUE.equals(record.getFtpUploaded()));
+                    fileSnapshotIndex.put(file, snapshot);
+                    unchanged.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * 数据库中的修改时间精度为秒，按秒比较
+     */
+    private boolean isChanged(FileMonitor record, BasicFileAttributes attrs) {
+        if (record.getFileSize() == null || record.getFileSize() != attrs.size()) {
+            return true;
+        }
+        if (record.getLastModified() == null) {
+            return true;
+        }
+        return record.getLastModified().getTime() / 1000 != attrs.lastModifiedTime().toMillis() / 1000;
+    }
+}
@@ -0,0 +1,178 @@
+package com.example.fileMonitor.watch;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * 目录监控注册表
+ * 维护 WatchKey -> 目录 的映射，支持多个根目录的递归注册，
+ * 新建子目录时增量注册、目录删除时注销其下所有子目录，无需全量重扫
+ */
+@Slf4j
+public class WatchRegistry implements AutoCloseable {
+    private final WatchService watchService;
+    private final boolean recursive;
+    private final List<Path> roots = new ArrayList<>();
+    private final Map<WatchKey, Path> keys = new ConcurrentHashMap<>();
+    //按路径排序，便于按前缀注销整棵子树
+    private final NavigableMap<Path, WatchKey> directories = new ConcurrentSkipListMap<>();
+
+    /**
+     * @param recursive 是否递归监控子目录，false时只监控根目录本身
+     */
+    public WatchRegistry(boolean recursive) throws IOException {
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.recursive = recursive;
+    }
+
+    /**
+     * 注册根目录（递归模式下包括其下所有子目录）
+     */
+    public void addRoot(Path root) throws IOException {
+        Path normalized = root.toAbsolutePath().normalize();
+        roots.add(normalized);
+        int count = registerTree(normalized, null);
+        log.info("addRoot 已注册监控目录: {}，共 {} 个目录", normalized, count);
+    }
+
+    public List<Path> getRoots() {
+        return Collections.unmodifiableList(roots);
+    }
+
+    public boolean isRoot(Path dir) {
+        return roots.contains(dir);
+    }
+
+    /**
+     * 注册目录树，非递归模式只注册目录本身
+     * @param dir     目录
+     * @param onFile  注册过程中遇到的已有文件回调（新建目录时，注册前已写入的文件不会产生事件），可为null
+     * @return 本次新注册的目录数
+     */
+    public int registerTree(Path dir, Consumer<Path> onFile) throws IOException {
+        int[] count = new int[1];
+        int maxDepth = recursive ? Integer.MAX_VALUE : 1;
+        Files.walkFileTree(dir, EnumSet.noneOf(FileVisitOption.class), maxDepth, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subDir, BasicFileAttributes attrs) throws IOException {
+                if (!directories.containsKey(subDir)) {
+                    register(subDir);
+                    count[0]++;
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                if (onFile != null && attrs.isRegularFile()) {
+                    onFile.accept(file);
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFileFailed(Path file, IOException e) {
+                log.warn("registerTree 无法访问: {}", file, e);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+        return count[0];
+    }
+
+    /**
+     * 注册单个目录（不遍历子目录），已注册时忽略
+     * @return 是否新注册
+     */
+    public boolean registerDirectory(Path dir) throws IOException {
+        if (directories.containsKey(dir)) {
+            return false;
+        }
+        register(dir);
+        return true;
+    }
+
+    /**
+     * ENTRY_CREATE 新文件/目录创建
+     * ENTRY_DELETE 文件/目录删除
+     * ENTRY_MODIFY 文件/目录修改
+     * OVERFLOW     事件溢出(文件丢失)，无需注册，总会投递
+     */
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(watchService,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        keys.put(key, dir);
+        directories.put(dir, key);
+    }
+
+    /**
+     * 注销目录及其下所有子目录
+     * @return 注销的目录数
+     */
+    public int unregisterTree(Path dir) {
+        int count = 0;
+        String prefix = dir.toString();
+        //字符串前缀相同的路径在有序表中是连续的，再按路径层级过滤（排除 /a/b-c 这类同前缀兄弟目录）
+        for (Map.Entry<Path, WatchKey> entry : directories.tailMap(dir, true).entrySet()) {
+            Path path = entry.getKey();
+            if (!path.toString().startsWith(prefix)) {
+                break;
+            }
+            if (path.startsWith(dir)) {
+                entry.getValue().cancel();
+                keys.remove(entry.getValue());
+                directories.remove(path);
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * WatchKey对应的目录，已注销时返回null
+     */
+    public Path resolve(WatchKey key) {
+        return keys.get(key);
+    }
+
+    public boolean isWatched(Path dir) {
+        return directories.containsKey(dir);
+    }
+
+    public int getDirectoryCount() {
+        return directories.size();
+    }
+
+    public WatchKey poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return watchService.poll(timeout, unit);
+    }
+
+    @Override
+    public void close() throws IOException {
+        keys.clear();
+        directories.clear();
+        watchService.close();
+    }
+}
@@ -9,5 +9,16 @@ import java.sql.SQLException;
 public interface FtpService {
     boolean uploadFile(File file) throws SQLException;
 
+    /**
+     * 上传到远程目录下的指定相对路径，路径中的子目录不存在时创建
+     * @param remotePath 相对远程根目录的路径（/分隔）
+     */
+    boolean uploadFile(File file, String remotePath) throws SQLException;
+
+    /**
+     * 上传文件中 [from, to) 范围的内容到指定相对路径，from大于0时追加到远程文件
+     */
+    boolean uploadRange(File file, String remotePath, long from, long to) throws SQLException;
+
     void uploadAllNotUploaded();
 }
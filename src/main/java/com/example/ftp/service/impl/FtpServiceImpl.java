@@ -3,6 +3,7 @@ package com.example.ftp.service.impl;
 import com.example.ftp.modal.FtpServer;
 import com.example.ftp.dao.FtpServiceDao;
 import com.example.ftp.service.FtpService;
+import com.example.utils.FileAccess;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.net.ftp.FTP;
 import org.apache.commons.net.ftp.FTPClient;
@@ -11,9 +12,10 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.sql.SQLException;
 
 @Service
@@ -24,6 +26,25 @@ public class FtpServiceImpl implements FtpService {
 
     @Override
     public boolean uploadFile(File file) throws SQLException {
+        return upload(file, file.getName(), 0, -1);
+    }
+
+    @Override
+    public boolean uploadFile(File file, String remotePath) throws SQLException {
+        return upload(file, remotePath, 0, -1);
+    }
+
+    @Override
+    public boolean uploadRange(File file, String remotePath, long from, long to) throws SQLException {
+        return upload(file, remotePath, from, to);
+    }
+
+    /**
+     * @param remotePath 相对远程根目录的路径（/分隔）
+     * @param from       起始位置，大于0时追加到远程文件
+     * @param to         结束位置（不包含），小于0时上传整个文件
+     */
+    private boolean upload(File file, String remotePath, long from, long to) throws SQLException {
         FtpServer ftpServer = ftpServerMapper.selectActiveFtpServer();
         if (ftpServer == null) {
             log.error("没有可用的FTP服务器配置");
@@ -50,8 +71,10 @@ public class FtpServiceImpl implements FtpService {
             ftpClient.setFileType(FTP.BINARY_FILE_TYPE);
             ftpClient.enterLocalPassiveMode();
 
-            // 创建远程目录（如果不存在）
-            String remoteDir = ftpServer.getRemoteDir();
+            // 创建远程目录（如果不存在），相对路径中的子目录一并创建
+            int slash = remotePath.lastIndexOf('/');
+            String remoteName = remotePath.substring(slash + 1);
+            String remoteDir = slash < 0 ? ftpServer.getRemoteDir() : ftpServer.getRemoteDir() + "/" + remotePath.substring(0, slash);
             if (!ftpClient.changeWorkingDirectory(remoteDir)) {
                 String[] directories = remoteDir.split("/");
                 StringBuilder path = new StringBuilder();
@@ -71,13 +94,16 @@ public class FtpServiceImpl implements FtpService {
             }
 
             // 上传文件
-            try (InputStream inputStream = new FileInputStream(file)) {
-                boolean uploaded = ftpClient.storeFile(file.getName(), inputStream);
+            //从文件通道按位置读取到池化的直接缓冲区，不经过堆内的整块缓冲
+            try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+                 InputStream inputStream = FileAccess.openStream(channel, from, to < 0 ? channel.size() : to)) {
+                boolean uploaded = from > 0 ? ftpClient.appendFile(remoteName, inputStream)
+                        : ftpClient.storeFile(remoteName, inputStream);
                 if (uploaded) {
-                    log.info("文件上传成功: {}", file.getName());
+                    log.info("文件上传成功: {}{}", remotePath, from > 0 ? "（追加 " + (to - from) + " 字节）" : "");
                     return true;
                 } else {
-                    log.error("文件上传失败: {}", file.getName());
+                    log.error("文件上传失败: {}", remotePath);
                     return false;
                 }
             }
@@ -0,0 +1,46 @@
+package com.example.utils;
+
+import com.example.utils.modal.Base64FileContent;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.io.IOException;
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * 把文件内容以Base64字符流绑定到SQL参数（setCharacterStream），不在内存中生成完整的编码字符串
+ * 使用服务端预编译语句(useServerPrepStmts=true)时驱动按块发送，否则驱动会自行缓冲整个参数
+ * 只用于写入，读取时返回null
+ */
+@MappedTypes(Base64FileContent.class)
+public class Base64FileContentTypeHandler extends BaseTypeHandler<Base64FileContent> {
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, Base64FileContent parameter, JdbcType jdbcType) throws SQLException {
+        try {
+            //只读取抽取时大小范围内的内容，与声明的长度一致；文件由调用方在语句执行后关闭
+            ps.setCharacterStream(i, parameter.openReader(), Base64Reader.encodedLength(parameter.getSize()));
+        } catch (IOException e) {
+            throw new SQLException("读取文件内容失败: " + parameter.getPath(), e);
+        }
+    }
+
+    @Override
+    public Base64FileContent getNullableResult(ResultSet rs, String columnName) {
+        return null;
+    }
+
+    @Override
+    public Base64FileContent getNullableResult(ResultSet rs, int columnIndex) {
+        return null;
+    }
+
+    @Override
+    public Base64FileContent getNullableResult(CallableStatement cs, int columnIndex) {
+        return null;
+    }
+}
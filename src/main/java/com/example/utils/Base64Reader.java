@@ -0,0 +1,86 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.util.Base64;
+
+/**
+ * 把字节流按Base64编码后以字符流输出
+ * 每次只编码一个固定大小的块，内存占用与内容大小无关；读到末尾时自动关闭底层输入流
+ */
+public class Base64Reader extends Reader {
+    private static final int GROUP_BYTES = 3 * 4096;
+
+    private final InputStream inputStream;
+    private final Base64.Encoder encoder = Base64.getEncoder();
+    private final byte[] input = new byte[GROUP_BYTES];
+    private int inputLength;
+    private final char[] output = new char[GROUP_BYTES / 3 * 4];
+    private int outputPosition;
+    private int outputLength;
+    private boolean eof;
+
+    public Base64Reader(InputStream inputStream) {
+        this.inputStream = inputStream;
+    }
+
+    /**
+     * 编码后的长度
+     * @param size 原始字节数
+     */
+    public static long encodedLength(long size) {
+        return (size + 2) / 3 * 4;
+    }
+
+    @Override
+    public int read(char[] cbuf, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (outputPosition == outputLength && !fill()) {
+            return -1;
+        }
+        int count = Math.min(len, outputLength - outputPosition);
+        System.arraycopy(output, outputPosition, cbuf, off, count);
+        outputPosition += count;
+        return count;
+    }
+
+    /**
+     * 读取并编码下一块，只有最后一块带填充字符
+     */
+    private boolean fill() throws IOException {
+        if (eof) {
+            return false;
+        }
+        while (inputLength < input.length) {
+            int read = inputStream.read(input, inputLength, input.length - inputLength);
+            if (read < 0) {
+                eof = true;
+                inputStream.close();
+                break;
+            }
+            inputLength += read;
+        }
+        //未到末尾时输入缓冲区已满，长度是3的倍数，编码结果不含填充
+        if (inputLength == 0) {
+            return false;
+        }
+        ByteBuffer encoded = encoder.encode(ByteBuffer.wrap(input, 0, inputLength));
+        outputLength = encoded.remaining();
+        for (int i = 0; i < outputLength; i++) {
+            output[i] = (char) encoded.get();
+        }
+        outputPosition = 0;
+        inputLength = 0;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        eof = true;
+        inputStream.close();
+    }
+}
@@ -1,8 +1,10 @@
 package com.example.utils;
 
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 import org.apache.poi.ss.usermodel.*;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
-import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Date;
 
 /**
@@ -65,9 +67,74 @@ public class CellContentReader {
     }
 
     /**
-     * 获取单元格的详细信息
+     * 工作簿范围的读取上下文，读取一个工作簿时创建一次，所有单元格共用
+     * 公式计算器只创建一次，POI在其中缓存已计算的单元格，被多次引用的单元格不会重复计算；
+     * 使用文件中缓存的计算结果时不计算公式
+     */
+    public static class CellReadContext {
+        private final Workbook workbook;
+        private final boolean useCachedFormulaResult;
+        private final boolean date1904;
+        private FormulaEvaluator evaluator;
+        private CellFormatCache.CellFormat[] formats;   //按样式下标缓存的数字格式
+
+        /**
+         * @param useCachedFormulaResult 是否直接使用文件中缓存的公式计算结果
+         */
+        public CellReadContext(Workbook workbook, boolean useCachedFormulaResult) {
+            this.workbook = workbook;
+            this.useCachedFormulaResult = useCachedFormulaResult;
+            this.date1904 = workbook instanceof XSSFWorkbook ? ((XSSFWorkbook) workbook).isDate1904()
+                    : workbook instanceof HSSFWorkbook && ((HSSFWorkbook) workbook).getInternalWorkbook().isUsing1904DateWindowing();
+        }
+
+        public boolean isUseCachedFormulaResult() { return useCachedFormulaResult; }
+        public boolean isDate1904() { return date1904; }
+
+        /**
+         * 样式对应的数字格式，每个样式只取一次格式字符串
+         */
+        public CellFormatCache.CellFormat getFormat(CellStyle cellStyle) {
+            if (cellStyle == null) {
+                return CellFormatCache.get(null);
+            }
+            int index = cellStyle.getIndex() & 0xFFFF;
+            if (formats == null) {
+                formats = new CellFormatCache.CellFormat[Math.max(workbook.getNumCellStyles(), index + 1)];
+            } else if (index >= formats.length) {
+                formats = Arrays.copyOf(formats, index + 1);
+            }
+            CellFormatCache.CellFormat format = formats[index];
+            if (format == null) {
+                format = CellFormatCache.get(cellStyle.getDataFormatString());
+                formats[index] = format;
+            }
+            return format;
+        }
+
+        /**
+         * 第一次遇到公式单元格时创建计算器
+         */
+        public FormulaEvaluator getEvaluator() {
+            if (evaluator == null) {
+                evaluator = workbook.getCreationHelper().createFormulaEvaluator();
+            }
+            return evaluator;
+        }
+    }
+
+    /**
+     * 获取单元格的详细信息（单独读取一个单元格时使用，读取整个工作簿时使用共用上下文的重载）
      */
     public static CellContentInfo getCellContentInfo(Cell cell) {
+        return getCellContentInfo(cell, cell == null ? null : new CellReadContext(cell.getSheet().getWorkbook(), false));
+    }
+
+    /**
+     * 获取单元格的详细信息
+     * @param context 所在工作簿的读取上下文
+     */
+    public static CellContentInfo getCellContentInfo(Cell cell, CellReadContext context) {
         if (cell == null) {
             return new CellContentInfo(null, null, CellContentType.BLANK,
                     "未知", null, null);
@@ -85,7 +152,7 @@ public class CellContentReader {
             case BOOLEAN:
                 return handleBooleanCell(cell, cellAddress, cellStyle, formatString);
             case FORMULA:
-                return handleFormulaCell(cell, cellAddress, cellStyle, formatString);
+                return handleFormulaCell(cell, context, cellAddress, cellStyle, formatString);
             case ERROR:
                 return handleErrorCell(cell, cellAddress, cellStyle, formatString);
             default:
@@ -94,6 +161,111 @@ public class CellContentReader {
         }
     }
 
+    /**
+     * 按单元格类型以原始值回调，不创建 CellContentInfo（读取整个工作表时使用）
+     * 空单元格不回调，公式按上下文计算或取缓存结果，无法取得结果时回调公式本身
+     * @param context 所在工作簿的读取上下文
+     */
+    public static void visitCell(Cell cell, int rowIndex, int columnIndex, CellReadContext context, CellVisitor visitor) {
+        switch (cell.getCellType()) {
+            case STRING:
+                visitor.onString(rowIndex, columnIndex, cell.getStringCellValue());
+                break;
+            case NUMERIC:
+                visitNumeric(rowIndex, columnIndex, cell.getNumericCellValue(), cell.getCellStyle(), context, visitor);
+                break;
+            case BOOLEAN:
+                visitor.onBoolean(rowIndex, columnIndex, cell.getBooleanCellValue());
+                break;
+            case FORMULA:
+                visitFormula(cell, rowIndex, columnIndex, context, visitor);
+                break;
+            case ERROR:
+                visitor.onError(rowIndex, columnIndex, cell.getErrorCellValue(), false);
+                break;
+            default:
+        }
+    }
+
+    /**
+     * 数字按格式回调为日期或数字（流式读取时只有原始值和格式，没有 Cell 对象）
+     * @param formatIndex  数字格式编号
+     * @param formatString 数字格式字符串
+     * @param date1904     工作簿是否使用1904日期系统
+     */
+    public static void visitNumeric(int rowIndex, int columnIndex, double numericValue, int formatIndex, String formatString,
+                                    boolean date1904, CellVisitor visitor) {
+        CellFormatCache.CellFormat format = CellFormatCache.get(formatString);
+        if (DateUtil.isValidExcelDate(numericValue) && format.isDateFormat(formatIndex)) {
+            visitor.onDate(rowIndex, columnIndex, numericValue, date1904, format);
+        } else {
+            visitor.onNumeric(rowIndex, columnIndex, numericValue, format);
+        }
+    }
+
+    private static void visitNumeric(int rowIndex, int columnIndex, double numericValue, CellStyle cellStyle,
+                                     CellReadContext context, CellVisitor visitor) {
+        CellFormatCache.CellFormat format = context.getFormat(cellStyle);
+        if (isDateFormatted(numericValue, cellStyle, format)) {
+            visitor.onDate(rowIndex, columnIndex, numericValue, context.isDate1904(), format);
+        } else {
+            visitor.onNumeric(rowIndex, columnIndex, numericValue, format);
+        }
+    }
+
+    private static void visitFormula(Cell cell, int rowIndex, int columnIndex, CellReadContext context, CellVisitor visitor) {
+        CellValue cellValue;
+        try {
+            cellValue = context.isUseCachedFormulaResult()
+                    ? getCachedFormulaResult(cell) : context.getEvaluator().evaluate(cell);
+        } catch (Exception e) {
+            // 公式计算失败，返回公式本身
+            cellValue = null;
+        }
+        if (cellValue == null) {
+            visitor.onFormula(rowIndex, columnIndex, cell.getCellFormula());
+            return;
+        }
+        switch (cellValue.getCellType()) {
+            case NUMERIC:
+                visitNumeric(rowIndex, columnIndex, cellValue.getNumberValue(), cell.getCellStyle(), context, visitor);
+                break;
+            case STRING:
+                visitor.onString(rowIndex, columnIndex, cellValue.getStringValue());
+                break;
+            case BOOLEAN:
+                visitor.onBoolean(rowIndex, columnIndex, cellValue.getBooleanValue());
+                break;
+            case ERROR:
+                visitor.onError(rowIndex, columnIndex, cellValue.getErrorValue(), true);
+                break;
+            default:
+                visitor.onFormula(rowIndex, columnIndex, cell.getCellFormula());
+        }
+    }
+
+    /**
+     * 日期的格式化值
+     */
+    public static String formatDate(double excelDate, boolean date1904, CellFormatCache.CellFormat format) {
+        return format.formatDate(DateUtil.getJavaDate(excelDate, date1904));
+    }
+
+    /**
+     * 布尔值的格式化值
+     */
+    public static String formatBoolean(boolean value) {
+        return value ? "TRUE" : "FALSE";
+    }
+
+    /**
+     * 错误码的格式化值
+     * @param formula 是否为公式的计算结果
+     */
+    public static String formatError(byte errorCode, boolean formula) {
+        return formula ? "公式错误#" + errorCode : getErrorMessage(errorCode);
+    }
+
     /**
      * 处理空单元格
      */
@@ -144,20 +316,18 @@ public class CellContentReader {
     private static CellContentInfo handleNumericCell(Cell cell, String cellAddress,
                                                      CellStyle cellStyle, String formatString) {
         double numericValue = cell.getNumericCellValue();
+        CellFormatCache.CellFormat format = CellFormatCache.get(formatString);
 
         // 检查是否是日期格式
-        if (DateUtil.isCellDateFormatted(cell)) {
+        if (isDateFormatted(numericValue, cellStyle, format)) {
             Date dateValue = cell.getDateCellValue();
-            CellContentType dateType = determineDateTimeType(cellStyle, formatString);
-            String formattedDate = formatDateValue(dateValue, cellStyle);
+            String formattedDate = format.formatDate(dateValue);
 
-            return new CellContentInfo(dateValue, formattedDate, dateType,
+            return new CellContentInfo(dateValue, formattedDate, format.getDateType(),
                     cellAddress, formatString, cellStyle);
         } else {
             // 普通数字
-            // 检查是否是整数
-            boolean isInteger = Math.floor(numericValue) == numericValue;
-            String formattedNumber = formatNumericValue(numericValue, cellStyle);
+            String formattedNumber = format.formatNumber(numericValue);
 
             return new CellContentInfo(numericValue, formattedNumber, CellContentType.NUMERIC,
                     cellAddress, formatString, cellStyle);
@@ -165,63 +335,10 @@ public class CellContentReader {
     }
 
     /**
-     * 判断日期时间的具体类型
-     */
-    private static CellContentType determineDateTimeType(CellStyle style, String format) {
-        if (format == null) return CellContentType.DATE;
-
-        format = format.toLowerCase();
-        boolean hasDatePart = format.contains("yy") || format.contains("mm") || format.contains("dd");
-        boolean hasTimePart = format.contains("hh") || format.contains("ss") || format.contains("mm")
-                && !format.contains("mmm");
-
-        if (hasDatePart && hasTimePart) {
-            return CellContentType.DATETIME;
-        } else if (hasDatePart) {
-            return CellContentType.DATE;
-        } else if (hasTimePart) {
-            return CellContentType.TIME;
-        } else {
-            return CellContentType.DATE;
-        }
-    }
-
-    /**
-     * 格式化日期值
+     * 数字是否按日期显示（与 DateUtil.isCellDateFormatted 相同，格式分析结果取自缓存）
      */
-    private static String formatDateValue(Date date, CellStyle style) {
-        if (date == null) return "";
-
-        if (style != null && style.getDataFormatString() != null) {
-            // 可以在这里实现自定义格式，这里简单返回默认格式
-            SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-            return sdf.format(date);
-        } else {
-            return date.toString();
-        }
-    }
-
-    /**
-     * 格式化数字值
-     */
-    private static String formatNumericValue(double value, CellStyle style) {
-        // 根据样式格式化数字
-        if (style != null && style.getDataFormatString() != null) {
-            String format = style.getDataFormatString();
-            // 这里可以添加复杂的格式化逻辑
-            if (format.contains("#,##0") || format.contains("0.00")) {
-                // 使用DecimalFormat进行格式化
-                java.text.DecimalFormat df = new java.text.DecimalFormat(format);
-                return df.format(value);
-            }
-        }
-
-        // 默认格式化：如果是整数，显示为整数形式
-        if (Math.floor(value) == value) {
-            return String.valueOf((long) value);
-        } else {
-            return String.valueOf(value);
-        }
+    private static boolean isDateFormatted(double numericValue, CellStyle cellStyle, CellFormatCache.CellFormat format) {
+        return cellStyle != null && DateUtil.isValidExcelDate(numericValue) && format.isDateFormat(cellStyle.getDataFormat());
     }
 
     /**
@@ -239,27 +356,31 @@ public class CellContentReader {
     /**
      * 处理公式单元格
      */
-    private static CellContentInfo handleFormulaCell(Cell cell, String cellAddress,
+    private static CellContentInfo handleFormulaCell(Cell cell, CellReadContext context, String cellAddress,
                                                      CellStyle cellStyle, String formatString) {
         String formula = cell.getCellFormula();
 
         try {
-            // 获取公式计算后的值
-            FormulaEvaluator evaluator = cell.getSheet().getWorkbook().getCreationHelper()
-                    .createFormulaEvaluator();
-            CellValue cellValue = evaluator.evaluate(cell);
+            // 获取公式计算后的值（使用缓存结果时直接读取文件中的值）
+            CellValue cellValue = context.isUseCachedFormulaResult()
+                    ? getCachedFormulaResult(cell) : context.getEvaluator().evaluate(cell);
+            if (cellValue == null) {
+                return new CellContentInfo(formula, formula, CellContentType.FORMULA,
+                        cellAddress, formatString, cellStyle);
+            }
 
             // 根据计算结果的类型创建信息
             switch (cellValue.getCellType()) {
                 case NUMERIC:
-                    if (DateUtil.isCellDateFormatted(cell)) {
-                        Date date = DateUtil.getJavaDate(cellValue.getNumberValue());
-                        String formattedDate = formatDateValue(date, cellStyle);
+                    CellFormatCache.CellFormat format = CellFormatCache.get(formatString);
+                    double numericValue = cellValue.getNumberValue();
+                    if (isDateFormatted(numericValue, cellStyle, format)) {
+                        Date date = DateUtil.getJavaDate(numericValue);
+                        String formattedDate = format.formatDate(date);
                         return new CellContentInfo(date, formattedDate, CellContentType.DATE,
                                 cellAddress, formatString, cellStyle);
                     } else {
-                        double numericValue = cellValue.getNumberValue();
-                        String formattedNumber = formatNumericValue(numericValue, cellStyle);
+                        String formattedNumber = format.formatNumber(numericValue);
                         return new CellContentInfo(numericValue, formattedNumber, CellContentType.NUMERIC,
                                 cellAddress, formatString, cellStyle);
                     }
@@ -291,6 +412,24 @@ public class CellContentReader {
         }
     }
 
+    /**
+     * 文件中缓存的公式计算结果，没有缓存结果时返回null
+     */
+    private static CellValue getCachedFormulaResult(Cell cell) {
+        switch (cell.getCachedFormulaResultType()) {
+            case NUMERIC:
+                return new CellValue(cell.getNumericCellValue());
+            case STRING:
+                return new CellValue(cell.getStringCellValue());
+            case BOOLEAN:
+                return CellValue.valueOf(cell.getBooleanCellValue());
+            case ERROR:
+                return CellValue.getError(cell.getErrorCellValue());
+            default:
+                return null;
+        }
+    }
+
     /**
      * 处理错误单元格
      */
@@ -0,0 +1,136 @@
+package com.example.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.text.DecimalFormat;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 单元格数字格式缓存
+ * 按数字格式字符串缓存是否为日期格式、日期时间类型和数字格式化器，同一格式只分析一次；
+ * 缓存项不可变（DecimalFormat 非线程安全，按线程各持有一个），可在并行解析的多个线程中共用
+ */
+public class CellFormatCache {
+
+    //日期统一输出的格式
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    //缓存的格式数上限，超过时清空（格式字符串通常只有几十种）
+    private static final int MAX_SIZE = 1024;
+
+    private static final CellFormat NO_FORMAT = new CellFormat(null);
+    private static final Map<String, CellFormat> CACHE = new ConcurrentHashMap<>();
+
+    /**
+     * 取格式字符串对应的缓存项
+     */
+    public static CellFormat get(String formatString) {
+        if (formatString == null) {
+            return NO_FORMAT;
+        }
+        CellFormat format = CACHE.get(formatString);
+        if (format == null) {
+            if (CACHE.size() >= MAX_SIZE) {
+                CACHE.clear();
+            }
+            format = CACHE.computeIfAbsent(formatString, CellFormat::new);
+        }
+        return format;
+    }
+
+    /**
+     * 单个格式字符串的分析结果
+     */
+    public static class CellFormat {
+        private final String formatString;
+        private final boolean dateFormat;
+        private final CellContentReader.CellContentType dateType;
+        private final ThreadLocal<DecimalFormat> numberFormat;
+
+        private CellFormat(String formatString) {
+            this.formatString = formatString;
+            this.dateFormat = formatString != null && DateUtil.isADateFormat(-1, formatString);
+            this.dateType = determineDateTimeType(formatString);
+            this.numberFormat = createNumberFormat(formatString);
+        }
+
+        /**
+         * 是否为日期格式（内置日期格式编号按编号判断，其余按格式字符串判断）
+         */
+        public boolean isDateFormat(int formatIndex) {
+            return dateFormat || DateUtil.isInternalDateFormat(formatIndex);
+        }
+
+        /**
+         * 日期格式对应的日期时间类型
+         */
+        public CellContentReader.CellContentType getDateType() {
+            return dateType;
+        }
+
+        /**
+         * 格式化日期值：有格式时统一输出 yyyy-MM-dd HH:mm:ss
+         */
+        public String formatDate(Date date) {
+            if (date == null) return "";
+            if (formatString != null) {
+                return DATE_TIME_FORMATTER.format(date.toInstant().atZone(ZoneId.systemDefault()));
+            }
+            return date.toString();
+        }
+
+        /**
+         * 格式化数字值：千分位、小数格式按格式字符串输出，其余整数显示为整数形式
+         */
+        public String formatNumber(double value) {
+            if (numberFormat != null) {
+                return numberFormat.get().format(value);
+            }
+            if (Math.floor(value) == value) {
+                return String.valueOf((long) value);
+            }
+            return String.valueOf(value);
+        }
+
+        /**
+         * 判断日期时间的具体类型
+         */
+        private static CellContentReader.CellContentType determineDateTimeType(String format) {
+            if (format == null) return CellContentReader.CellContentType.DATE;
+
+            format = format.toLowerCase();
+            boolean hasDatePart = format.contains("yy") || format.contains("mm") || format.contains("dd");
+            boolean hasTimePart = format.contains("hh") || format.contains("ss") || format.contains("mm")
+                    && !format.contains("mmm");
+
+            if (hasDatePart && hasTimePart) {
+                return CellContentReader.CellContentType.DATETIME;
+            } else if (hasDatePart) {
+                return CellContentReader.CellContentType.DATE;
+            } else if (hasTimePart) {
+                return CellContentReader.CellContentType.TIME;
+            } else {
+                return CellContentReader.CellContentType.DATE;
+            }
+        }
+
+        /**
+         * DecimalFormat 无法解析的Excel格式（如带颜色、分段的格式）按默认方式格式化
+         */
+        private static ThreadLocal<DecimalFormat> createNumberFormat(String format) {
+            if (format == null || !(format.contains("#,##0") || format.contains("0.00"))) {
+                return null;
+            }
+            try {
+                new DecimalFormat(format);
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+            return ThreadLocal.withInitial(() -> new DecimalFormat(format));
+        }
+    }
+}
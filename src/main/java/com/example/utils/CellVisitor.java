@@ -0,0 +1,61 @@
+package com.example.utils;
+
+import org.apache.poi.ss.util.CellReference;
+
+/**
+ * 读取工作表时的行、单元格回调
+ * 单元格按类型以原始值回调，不为每个单元格创建 CellContentInfo、地址字符串或装箱值；
+ * 需要格式化值时用 CellContentReader 的 format 方法，需要地址时用 address 按需计算
+ */
+public interface CellVisitor {
+    /**
+     * @param date1904 工作簿是否使用1904日期系统（非日期格式的数字按日期使用时需要）
+     */
+    void startSheet(String sheetName, boolean date1904);
+
+    /**
+     * @param rowIndex 行下标（从0开始）
+     */
+    void startRow(int rowIndex);
+
+    /**
+     * 字符串（含富文本、结果为字符串的公式），value 可能是读取器复用的缓冲区，需要保留时复制
+     * @param rowIndex    行下标（从0开始）
+     * @param columnIndex 列下标（从0开始）
+     */
+    void onString(int rowIndex, int columnIndex, CharSequence value);
+
+    /**
+     * 数字（非日期格式）
+     * @param format 单元格数字格式
+     */
+    void onNumeric(int rowIndex, int columnIndex, double value, CellFormatCache.CellFormat format);
+
+    /**
+     * 日期格式的数字
+     * @param excelDate Excel日期序列值
+     * @param date1904  工作簿是否使用1904日期系统
+     */
+    void onDate(int rowIndex, int columnIndex, double excelDate, boolean date1904, CellFormatCache.CellFormat format);
+
+    void onBoolean(int rowIndex, int columnIndex, boolean value);
+
+    /**
+     * @param formula 是否为公式的计算结果
+     */
+    void onError(int rowIndex, int columnIndex, byte errorCode, boolean formula);
+
+    /**
+     * 无法取得计算结果的公式
+     */
+    void onFormula(int rowIndex, int columnIndex, String formula);
+
+    void endRow(int rowIndex);
+
+    /**
+     * 单元格地址（如 B3），只在需要时计算
+     */
+    static String address(int rowIndex, int columnIndex) {
+        return new CellReference(rowIndex, columnIndex).formatAsString();
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * 以定位读取（FileChannel.read(buffer, position)）读取文件中的一段字节
+ * 读入池化的直接缓冲区（读入堆内缓冲区时JDK会先读到临时直接缓冲区再复制一次），关闭时归还；
+ * 不改变通道的当前位置，不负责关闭通道
+ */
+public class ChannelRangeInputStream extends InputStream {
+    private final FileChannel channel;
+    private ByteBuffer buffer;
+    private long position;
+    private final long end;
+
+    /**
+     * @param start 起始位置（包含）
+     * @param end   结束位置（不包含）
+     */
+    public ChannelRangeInputStream(FileChannel channel, long start, long end) {
+        this.channel = channel;
+        this.position = start;
+        this.end = end;
+        this.buffer = FileAccess.bufferPool().acquire();
+        ((Buffer) this.buffer).limit(0);
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        return buffer.get() & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!buffer.hasRemaining() && !fill()) {
+            return -1;
+        }
+        int count = Math.min(len, buffer.remaining());
+        buffer.get(b, off, count);
+        return count;
+    }
+
+    @Override
+    public int available() {
+        if (buffer == null) {
+            return 0;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, buffer.remaining() + (end - position));
+    }
+
+    @Override
+    public void close() {
+        if (buffer != null) {
+            FileAccess.bufferPool().release(buffer);
+            buffer = null;
+        }
+    }
+
+    private boolean fill() throws IOException {
+        if (buffer == null) {
+            throw new IOException("流已关闭");
+        }
+        if (position >= end) {
+            return false;
+        }
+        ((Buffer) buffer).clear();
+        ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), end - position));
+        int read = channel.read(buffer, position);
+        ((Buffer) buffer).flip();
+        if (read <= 0) {
+            //文件在读取期间被截断
+            return false;
+        }
+        position += read;
+        return true;
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * 文件内容摘要工具类
+ */
+public class ContentHashUtil {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * 计算文件前size字节的SHA-256摘要（十六进制小写），使用池化的直接缓冲区按位置读取，内存占用与文件大小无关
+     * 只读到快照记录的大小，与之后按快照大小读取的内容一致，不包含期间继续写入的部分
+     */
+    public static String sha256(Path filePath, long size) throws IOException {
+        MessageDigest digest = newDigest();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ)) {
+            FileAccess.digest(channel, 0, Math.min(size, channel.size()), digest);
+        }
+        return toHex(digest.digest());
+    }
+
+    public static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("当前JDK不支持SHA-256", e);
+        }
+    }
+
+    public static String toHex(byte[] bytes) {
+        char[] chars = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i * 2] = HEX[(bytes[i] >> 4) & 0x0F];
+            chars[i * 2 + 1] = HEX[bytes[i] & 0x0F];
+        }
+        return new String(chars);
+    }
+}
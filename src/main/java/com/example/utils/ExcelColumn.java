@@ -0,0 +1,24 @@
+package com.example.utils;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 按行绑定到对象时字段对应的Excel列
+ * 没有此注解的字段按字段名与标题匹配（忽略大小写）
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.FIELD)
+public @interface ExcelColumn {
+    /**
+     * 标题行中的列标题
+     */
+    String value() default "";
+
+    /**
+     * 列下标（从0开始），大于等于0时按下标匹配，不看标题
+     */
+    int index() default -1;
+}
@@ -58,18 +58,24 @@ public class ExcelValidator {
         if (bytesRead < 8) {
             return null;
         }
+        return getExcelTypeByMagicNumber(header);
+    }
+
+    /**
+     * 通过已读取的文件头判断Excel类型
+     * @param header 文件开头的字节（至少8个）
+     * @return "xls", "xlsx", 或 null
+     */
+    public static String getExcelTypeByMagicNumber(byte[] header) {
+        if (null == header || header.length < 8) {
+            return null;
+        }
         // 检查是否为 .xls
         if (startsWith(header, XLS_SIGNATURE)) {
             return "xls";
         }
-        // 检查是否为 .xlsx (.xlsx实际上是ZIP格式)
-        if (startsWith(header, XLSX_SIGNATURE)) {
-            return "xlsx";
-        }
-        // 检查是否为 .xlsm (也是ZIP格式，需要进一步检查)
+        // 检查是否为 .xlsx (.xlsx实际上是ZIP格式，.xlsm 也是ZIP格式，这里统一返回 xlsx)
         if (startsWith(header, XLSX_SIGNATURE)) {
-            // .xlsm 也是ZIP格式，需要通过文件内容进一步判断
-            // 这里简单返回 xlsx，如果需要精确区分可以继续检查
             return "xlsx";
         }
         return null;
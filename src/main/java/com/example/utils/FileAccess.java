@@ -0,0 +1,69 @@
+package com.example.utils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.security.MessageDigest;
+import java.util.Arrays;
+
+/**
+ * 文件读取工具类
+ * 摘要、文件头识别、内容解析和上传共用：使用池化的直接缓冲区按位置读取，不把文件内容复制到堆内的大数组中；
+ * 不使用内存映射，映射的区域在缓冲区被回收前不会释放，Windows 下会一直占用文件，导致无法删除或重命名
+ */
+public class FileAccess {
+    private static final DirectBufferPool BUFFER_POOL = new DirectBufferPool(64 * 1024, 64);
+
+    /**
+     * 按位置读取文件开头的字节，不改变通道的当前位置
+     * @return 实际读取的字节（文件较短时少于length）
+     */
+    public static byte[] readHeader(FileChannel channel, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, buffer.position()) <= 0) {
+                break;
+            }
+        }
+        return buffer.position() == length ? buffer.array() : Arrays.copyOf(buffer.array(), buffer.position());
+    }
+
+    /**
+     * 读取 [from, to) 范围的内容，不改变通道的当前位置，关闭流时不关闭通道
+     */
+    public static InputStream openStream(FileChannel channel, long from, long to) {
+        return new ChannelRangeInputStream(channel, from, to);
+    }
+
+    /**
+     * 把 [from, to) 范围的内容更新到摘要中
+     */
+    public static void digest(FileChannel channel, long from, long to, MessageDigest digest) throws IOException {
+        ByteBuffer buffer = BUFFER_POOL.acquire();
+        try {
+            long position = from;
+            while (position < to) {
+                ((Buffer) buffer).clear();
+                ((Buffer) buffer).limit((int) Math.min(buffer.capacity(), to - position));
+                int read = channel.read(buffer, position);
+                if (read <= 0) {
+                    break;
+                }
+                ((Buffer) buffer).flip();
+                digest.update(buffer);
+                position += read;
+            }
+        } finally {
+            BUFFER_POOL.release(buffer);
+        }
+    }
+
+    /**
+     * 共用的直接缓冲区池，借出的缓冲区用完后需归还
+     */
+    public static DirectBufferPool bufferPool() {
+        return BUFFER_POOL;
+    }
+}
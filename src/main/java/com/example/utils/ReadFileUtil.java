@@ -1,26 +1,38 @@
 package com.example.utils;
 
 import com.example.utils.modal.ExcelReadModal;
+import com.example.utils.modal.ExcelSheetModal;
+import com.example.utils.modal.SheetTable;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.hssf.usermodel.HSSFCell;
-import org.apache.poi.hssf.usermodel.HSSFRow;
-import org.apache.poi.hssf.usermodel.HSSFSheet;
 import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
 import org.apache.poi.ss.usermodel.Cell;
-import org.apache.poi.xssf.usermodel.XSSFCell;
-import org.apache.poi.xssf.usermodel.XSSFRow;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.annotation.PreDestroy;
+
 import java.io.File;
-import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
 
 /**
  * 读取文件工具类
@@ -28,6 +40,24 @@ import java.util.Map;
 @Component
 @Slf4j
 public class ReadFileUtil{
+    //不小于该大小的Excel文件使用事件模型流式读取，不构建整个工作簿对象
+    @Value("${file.monitor.excel.streaming-threshold:5242880}")
+    private long streamingThreshold;
+
+    //公式单元格直接使用文件中缓存的计算结果，不重新计算（流式读取始终使用缓存结果）
+    @Value("${file.monitor.excel.use-cached-formula-result:false}")
+    private boolean useCachedFormulaResult;
+
+    //按名称选择要读取的工作表（正则），为空时读取所有工作表
+    @Value("${file.monitor.excel.sheet-filter:}")
+    private String sheetFilter;
+
+    //流式读取.xlsx时并行解析工作表的线程数，0表示CPU核数，1表示依次解析
+    @Value("${file.monitor.excel.parallelism:0}")
+    private int parallelism;
+
+    private volatile ForkJoinPool sheetPool;
+
     /**
      * 读取文件内容
      * @param file
@@ -63,174 +93,444 @@ public class ReadFileUtil{
         if(null == t){
             return null;
         }
-        try(InputStream inputStream = new FileInputStream(file)){
-            //此处是为了防止使用文件魔数判断Excel类型后，无法再次读取文件内容。
-            byte[] byteArray = StreamConverter.toByteArray(inputStream);
-            if(null == byteArray || byteArray.length == 0){
-                return null;
-            }
-            InputStream suffixInputStream = StreamConverter.toInputStream(byteArray);
-            InputStream bodyInputStream = StreamConverter.toInputStream(byteArray);
-            String suffix = ExcelValidator.getExcelTypeByMagicNumber(suffixInputStream);
-            if("xls".equals(suffix)){
-                log.info("判断为xls类型文件");
-                t = readXlsFile(bodyInputStream, t);
-            }else if("xlsx".equals(suffix)){
-                log.info("判断为xlsx类型文件");
-                t = readXlsxFile(bodyInputStream, t);
-            }else if("xlsm".equals(suffix)){//Excel 宏文件
-                //暂时不处理此类型文档
-                return null;
-            }else
-                return null;
+        String suffix;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            //按位置只读取8字节文件头判断类型，不复制文件内容
+            suffix = ExcelValidator.getExcelTypeByMagicNumber(FileAccess.readHeader(channel, 8));
         }
-        return t;
+        if("xlsm".equals(suffix)){//Excel 宏文件
+            //暂时不处理此类型文档
+            return null;
+        }
+        return readExcel(file, suffix, t);
     }
 
     /**
-     * 读取.xlsx文件内容
-     * 暂未处理合并单元格
-     * @param inputStream
+     * 按已识别的类型读取Excel文件，工作表按 file.monitor.excel.sheet-filter 选择
+     * @param file      Excel文件
+     * @param excelType xls 或 xlsx
+     * @return
      */
-    private  <T> T readXlsxFile(InputStream inputStream, T t){
-        log.info("readXlsFile 读取.xlsx文件内容 start");
-        if(null == inputStream){
+    public <T> T readExcel(File file, String excelType, T t) throws IOException {
+        return readExcel(file, excelType, getSheetFilter(), t);
+    }
+
+    /**
+     * 按已识别的类型读取Excel文件：超过流式读取阈值时流式读取，否则直接从文件打开工作簿（POI按需随机读取，不在堆内复制整个文件）
+     * @param file        Excel文件
+     * @param excelType   xls 或 xlsx
+     * @param sheetFilter 按工作表名称选择要读取的工作表
+     * @return
+     */
+    public <T> T readExcel(File file, String excelType, Predicate<String> sheetFilter, T t) throws IOException {
+        if (!"xls".equals(excelType) && !"xlsx".equals(excelType)) {
             return null;
         }
-        if(null == t){
-            return null;
+        if (isStreaming(excelType, file.length())) {
+            return readExcelStreaming(file, excelType, sheetFilter, t);
         }
-        Class<?> clazz = t.getClass();
-        try (XSSFWorkbook workbook = new XSSFWorkbook(inputStream)){
-            XSSFSheet sheet = workbook.getSheetAt(0);//读取Excel内第一个sheet页
-            if(null != sheet){
-                String sheetName = sheet.getSheetName();//sheet页名称
-                int lastRowNum = sheet.getLastRowNum();//获取Excel-Sheet页中的行数下标
-                if(lastRowNum != 0){
-                    //创建标题集合
-                    List<String> titles = new ArrayList<>();
-                    //创建内容集合
-                    List<List<Map<String, Object>>> dataList = new ArrayList<>();
-                    //创建标题Map
-                    Map<Integer, Object> titleMap = new HashMap<>();
-                    //遍历sheet页内的行元素
-                    for (int i = 0; i <= lastRowNum; i++) {
-                        XSSFRow row = sheet.getRow(i);//获取行对象
-                        if(null != row){
-                            int lastCellNum = row.getLastCellNum();//获取一行中的列数长度
-                            if(lastCellNum != 0){
-                                //创建存储行数据集合
-                                List<Map<String, Object>> rowList = new ArrayList<>();
-                                //遍历每一行内的单元格元素
-                                for (int j = 0; j < lastCellNum; j++) {
-                                    XSSFCell cell = row.getCell(j);//获取单元格对象
-                                    if(null != cell){
-                                        setCellContent(sheetName, cell, i, j, titleMap, titles, rowList);
-                                    }
-                                }
-                                if(i != 0){
-                                    dataList.add(rowList);
-                                }
-                            }
-                        }
-                    }
-                    if (ExcelReadModal.class.isAssignableFrom(clazz)) {
-                        t = (T) processToExcelModal((ExcelReadModal) t, titles, dataList);
+        return openWorkbook(file, excelType, workbook -> readWorkbook(workbook, sheetFilter, t));
+    }
+
+    /**
+     * 直接从文件只读打开工作簿（POI按需随机读取，不在堆内复制整个文件）并处理
+     * @param excelType xls 或 xlsx
+     */
+    private <R> R openWorkbook(File file, String excelType, Function<Workbook, R> function) throws IOException {
+        if ("xls".equals(excelType)) {
+            log.info("判断为xls类型文件");
+            try (POIFSFileSystem fs = new POIFSFileSystem(file, true);
+                 HSSFWorkbook workbook = new HSSFWorkbook(fs.getRoot(), true)) {
+                return function.apply(workbook);
+            }
+        }
+        log.info("判断为xlsx类型文件");
+        OPCPackage pkg;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+        } catch (InvalidFormatException e) {
+            throw new IOException("打开xlsx文件失败: " + file, e);
+        }
+        try {
+            return function.apply(new XSSFWorkbook(pkg));
+        } finally {
+            //只读打开的包用 revert 释放，close 用于保存
+            pkg.revert();
+        }
+    }
+
+    /**
+     * 按行把Excel文件内容绑定为对象，读取后返回
+     * @see #readRows(File, Class, Consumer)
+     */
+    public <T> List<T> readRows(File file, Class<T> type) throws IOException {
+        List<T> rows = new ArrayList<>();
+        readRows(file, type, rows::add);
+        return rows;
+    }
+
+    /**
+     * 按行把Excel文件内容绑定为对象，逐行交给 consumer，不生成中间的 Map 和列式存储
+     * 标题按字段上的 @ExcelColumn（没有时按字段名）匹配，每个工作表只解析一次；工作表按 file.monitor.excel.sheet-filter 选择并依次读取，
+     * consumer 只在调用线程中调用
+     * @param type 绑定的类，需要无参构造器
+     */
+    public <T> void readRows(File file, Class<T> type, Consumer<? super T> consumer) throws IOException {
+        String excelType;
+        try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+            excelType = ExcelValidator.getExcelTypeByMagicNumber(FileAccess.readHeader(channel, 8));
+        }
+        if (!"xls".equals(excelType) && !"xlsx".equals(excelType)) {
+            log.warn("readRows 不支持的文件类型 {}: {}", excelType, file);
+            return;
+        }
+        log.info("readRows 按行绑定.{}文件内容到 {} start", excelType, type.getSimpleName());
+        RowBinder<T> binder = new RowBinder<>(type, consumer);
+        Predicate<String> sheetFilter = getSheetFilter();
+        if (isStreaming(excelType, file.length())) {
+            BiFunction<Integer, String, CellVisitor> handlers = (index, name) -> sheetFilter.test(name) ? binder : null;
+            if ("xls".equals(excelType)) {
+                XlsStreamingReader.readSheets(file, handlers);
+            } else {
+                //依次解析，consumer 不需要线程安全
+                XlsxStreamingReader.readSheets(file, handlers, null);
+            }
+        } else {
+            openWorkbook(file, excelType, workbook -> {
+                CellContentReader.CellReadContext context = new CellContentReader.CellReadContext(workbook, useCachedFormulaResult);
+                for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+                    Sheet sheet = workbook.getSheetAt(sheetIndex);
+                    if (null != sheet && sheetFilter.test(sheet.getSheetName())) {
+                        visitSheet(sheet, context, binder);
                     }
                 }
+                return null;
+            });
+        }
+        log.info("readRows 按行绑定.{}文件内容到 {} end", excelType, type.getSimpleName());
+    }
+
+    /**
+     * 按已识别的类型读取Excel内容
+     * @param inputStream 文件内容（POI会把整个流读入内存，文件已落盘时使用 readExcel(File, ...)）
+     * @param excelType   xls 或 xlsx
+     * @return
+     */
+    public <T> T readExcel(InputStream inputStream, String excelType, T t) {
+        if ("xls".equals(excelType)) {
+            log.info("判断为xls类型文件");
+            try (HSSFWorkbook workbook = new HSSFWorkbook(inputStream)) {
+                return readWorkbook(workbook, getSheetFilter(), t);
+            } catch (IOException e) {
+                log.error("readExcel 读取xls文档IO异常：", e);
+                return t;
+            }
+        } else if ("xlsx".equals(excelType)) {
+            log.info("判断为xlsx类型文件");
+            try (XSSFWorkbook workbook = new XSSFWorkbook(inputStream)) {
+                return readWorkbook(workbook, getSheetFilter(), t);
+            } catch (IOException e) {
+                log.error("readExcel 读取xlsx文档IO异常：", e);
+                return t;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * 是否按流式方式读取（不小于 file.monitor.excel.streaming-threshold）
+     */
+    public boolean isStreaming(String excelType, long size) {
+        return ("xlsx".equals(excelType) || "xls".equals(excelType)) && streamingThreshold >= 0 && size >= streamingThreshold;
+    }
+
+    /**
+     * 流式读取Excel文件内容，工作表按 file.monitor.excel.sheet-filter 选择
+     */
+    public <T> T readExcelStreaming(File file, String excelType, T t){
+        return readExcelStreaming(file, excelType, getSheetFilter(), t);
+    }
+
+    /**
+     * 流式读取Excel文件内容，结果与读取整个工作簿时相同，解析时每个工作表只保留当前行；
+     * .xlsx 的各工作表是独立的部件，在线程池中并行解析，.xls 的记录流只能依次处理
+     * @param file
+     * @param excelType   xls 或 xlsx
+     * @param sheetFilter 按工作表名称选择要读取的工作表
+     */
+    public <T> T readExcelStreaming(File file, String excelType, Predicate<String> sheetFilter, T t){
+        log.info("readExcelStreaming 流式读取.{}文件内容 start", excelType);
+        if(null == file || null == t){
+            return null;
+        }
+        List<SheetRowCollector> collectors = new ArrayList<>();
+        BiFunction<Integer, String, CellVisitor> handlers = (index, name) -> {
+            if(!sheetFilter.test(name)){
+                return null;
+            }
+            SheetRowCollector collector = new SheetRowCollector(index);
+            collectors.add(collector);
+            return collector;
+        };
+        try {
+            if("xls".equals(excelType)){
+                XlsStreamingReader.readSheets(file, handlers);
+            }else if("xlsx".equals(excelType)){
+                XlsxStreamingReader.readSheets(file, handlers, getSheetPool());
+            }else {
+                return null;
             }
         } catch (IOException e) {
-            log.error("readXlsxFile 读取xlsx文档IO异常：", e);
+            log.error("readExcelStreaming 读取{}文档IO异常：", excelType, e);
+            return t;
+        }
+        List<ExcelSheetModal> sheets = new ArrayList<>();
+        int rows = 0;
+        for (SheetRowCollector collector : collectors) {
+            if(collector.started){
+                ExcelSheetModal sheet = collector.toSheetModal();
+                rows += collector.table.getRowCount();
+                sheets.add(sheet);
+            }
         }
-        log.info("readXlsFile 读取.xlsx文件内容 end");
+        if(ExcelReadModal.class.isAssignableFrom(t.getClass())){
+            t = (T) processToExcelModal((ExcelReadModal) t, sheets);
+        }
+        log.info("readExcelStreaming 流式读取.{}文件内容 end，工作表 {} 个，共 {} 行", excelType, sheets.size(), rows);
         return t;
     }
 
     /**
-     * 读取.xls文件内容
+     * 按行收集一个工作表的标题和内容（只在一个线程中调用）
+     * 默认第一行为标题行（如标题行占用多行须另外处理），内容行按列写入 SheetTable，数字、日期保留原始值
+     */
+    private class SheetRowCollector implements CellVisitor {
+        private final int sheetIndex;
+        private final List<String> titles = new ArrayList<>();
+        private final SheetTable table = new SheetTable();
+        private String sheetName;
+        private boolean started;
+        private int lastRowIndex = -1;
+
+        SheetRowCollector(int sheetIndex) {
+            this.sheetIndex = sheetIndex;
+        }
+
+        @Override
+        public void startSheet(String sheetName, boolean date1904) {
+            this.sheetName = sheetName;
+            this.started = true;
+        }
+
+        @Override
+        public void startRow(int rowIndex) {
+            if(rowIndex != 0){
+                table.startRow();
+            }
+            lastRowIndex = Math.max(lastRowIndex, rowIndex);
+        }
+
+        @Override
+        public void onString(int rowIndex, int columnIndex, CharSequence value) {
+            if(value.length() != 0){
+                setString(rowIndex, columnIndex, value.toString());
+            }
+        }
+
+        @Override
+        public void onNumeric(int rowIndex, int columnIndex, double value, CellFormatCache.CellFormat format) {
+            if(rowIndex == 0){
+                setTitle(columnIndex, format.formatNumber(value));
+            }else {
+                table.setNumber(columnIndex, value, format);
+            }
+        }
+
+        @Override
+        public void onDate(int rowIndex, int columnIndex, double excelDate, boolean date1904, CellFormatCache.CellFormat format) {
+            if(rowIndex == 0){
+                setTitle(columnIndex, CellContentReader.formatDate(excelDate, date1904, format));
+            }else {
+                table.setDate(columnIndex, DateUtil.getJavaDate(excelDate, date1904).getTime(), format);
+            }
+        }
+
+        @Override
+        public void onBoolean(int rowIndex, int columnIndex, boolean value) {
+            setString(rowIndex, columnIndex, CellContentReader.formatBoolean(value));
+        }
+
+        @Override
+        public void onError(int rowIndex, int columnIndex, byte errorCode, boolean formula) {
+            setString(rowIndex, columnIndex, CellContentReader.formatError(errorCode, formula));
+        }
+
+        @Override
+        public void onFormula(int rowIndex, int columnIndex, String formula) {
+            if(!formula.isEmpty()){
+                setString(rowIndex, columnIndex, formula);
+            }
+        }
+
+        @Override
+        public void endRow(int rowIndex) {
+        }
+
+        private void setString(int rowIndex, int columnIndex, String formattedValue){
+            if(rowIndex == 0){
+                setTitle(columnIndex, formattedValue);
+            }else {
+                table.setString(columnIndex, formattedValue);
+            }
+        }
+
+        /**
+         * 判断为第一行标题行
+         */
+        private void setTitle(int columnIndex, String formattedValue){
+            if(!formattedValue.isEmpty()){
+                titles.add(formattedValue);
+                table.setTitle(columnIndex, formattedValue);
+            }
+        }
+
+        ExcelSheetModal toSheetModal() {
+            table.finish();
+            if(log.isDebugEnabled()){
+                log.debug("toSheetModal {}：标题 {} 个，内容 {} 行，{} 列", sheetName, titles.size(), table.getRowCount(), table.getColumnCount());
+            }
+            //最后一行下标为0（只有标题行）时不设置内容
+            return toExcelSheetModal(sheetIndex, sheetName, lastRowIndex != 0 ? titles : null, lastRowIndex != 0 ? table : null);
+        }
+    }
+
+    /**
+     * 读取工作簿中选中的工作表
      * 暂未处理合并单元格
-     * @param inputStream
+     * @param workbook
      */
-    private  <T> T readXlsFile(InputStream inputStream, T t){
-        log.info("readXlsFile 读取.xls文件内容 start");
-        if(null == inputStream){
+    private <T> T readWorkbook(Workbook workbook, Predicate<String> sheetFilter, T t){
+        log.info("readWorkbook 读取工作簿内容 start");
+        if(null == workbook){
             return null;
         }
         if(null == t){
             return null;
         }
         Class<?> clazz = t.getClass();
-        try (HSSFWorkbook workbook = new HSSFWorkbook(inputStream)){
-            HSSFSheet sheet = workbook.getSheetAt(0);//读取Excel内第一个sheet页
-            if(null != sheet){
-                String sheetName = sheet.getSheetName();//sheet页名称
-                int lastRowNum = sheet.getLastRowNum();//获取Excel-Sheet页中的行数
-                if(lastRowNum != 0){
-                    //创建标题集合
-                    List<String> titles = new ArrayList<>();
-                    //创建内容集合
-                    List<List<Map<String, Object>>> dataList = new ArrayList<>();
-                    //创建标题Map
-                    Map<Integer, Object> titleMap = new HashMap<>();
-                    //遍历sheet页内的行元素
-                    for (int i = 0; i < lastRowNum; i++) {
-                        HSSFRow row = sheet.getRow(i);//获取行对象
-                        if(null != row){
-                            int lastCellNum = row.getLastCellNum();//获取一行中的列数
-                            if(lastCellNum != 0){
-                                //创建存储行数据集合
-                                List<Map<String, Object>> rowList = new ArrayList<>();
-                                //遍历每一行内的单元格元素
-                                for (int j = 0; j < lastCellNum; j++) {
-                                    HSSFCell cell = row.getCell(j);//获取单元格对象
-                                    if(null != cell){
-                                        setCellContent(sheetName, cell, i, j, titleMap, titles, rowList);
-                                    }
-                                }
-                                dataList.add(rowList);
-                            }
+        List<ExcelSheetModal> sheets = new ArrayList<>();
+        //整个工作簿共用一个读取上下文（公式计算器及其计算缓存）
+        CellContentReader.CellReadContext context = new CellContentReader.CellReadContext(workbook, useCachedFormulaResult);
+        for (int sheetIndex = 0; sheetIndex < workbook.getNumberOfSheets(); sheetIndex++) {
+            Sheet sheet = workbook.getSheetAt(sheetIndex);
+            if(null != sheet && sheetFilter.test(sheet.getSheetName())){
+                sheets.add(readSheet(sheetIndex, sheet, context));
+            }
+        }
+        if (ExcelReadModal.class.isAssignableFrom(clazz)) {
+            t = (T) processToExcelModal((ExcelReadModal) t, sheets);
+        }
+        log.info("readWorkbook 读取工作簿内容 end，工作表 {} 个", sheets.size());
+        return t;
+    }
+
+    /**
+     * 读取单个工作表
+     */
+    private ExcelSheetModal readSheet(int sheetIndex, Sheet sheet, CellContentReader.CellReadContext context){
+        String sheetName = sheet.getSheetName();//sheet页名称
+        int lastRowNum = sheet.getLastRowNum();//获取Excel-Sheet页中的行数下标
+        if(lastRowNum == 0){
+            return toExcelSheetModal(sheetIndex, sheetName, null, null);
+        }
+        SheetRowCollector collector = new SheetRowCollector(sheetIndex);
+        visitSheet(sheet, context, collector);
+        return collector.toSheetModal();
+    }
+
+    /**
+     * 按行、列顺序回调工作表中的单元格
+     */
+    private void visitSheet(Sheet sheet, CellContentReader.CellReadContext context, CellVisitor visitor){
+        visitor.startSheet(sheet.getSheetName(), context.isDate1904());
+        int lastRowNum = sheet.getLastRowNum();//获取Excel-Sheet页中的行数下标
+        //遍历sheet页内的行元素
+        for (int i = 0; i <= lastRowNum; i++) {
+            Row row = sheet.getRow(i);//获取行对象
+            if(null != row){
+                int lastCellNum = row.getLastCellNum();//获取一行中的列数长度
+                if(lastCellNum != 0){
+                    visitor.startRow(i);
+                    //遍历每一行内的单元格元素
+                    for (int j = 0; j < lastCellNum; j++) {
+                        Cell cell = row.getCell(j);//获取单元格对象
+                        if(null != cell){
+                            CellContentReader.visitCell(cell, i, j, context, visitor);
                         }
                     }
-                    if (ExcelReadModal.class.isAssignableFrom(clazz)) {
-                        t = (T) processToExcelModal((ExcelReadModal) t, titles, dataList);
-                    }
+                    visitor.endRow(i);
                 }
             }
-        } catch (IOException e) {
-            log.error("readXlsFile 读取xlsx文档IO异常：", e);
         }
-        log.info("readXlsFile 读取.xls文件内容 end");
-        return t;
     }
 
-    private void setCellContent(String sheetName, Cell cell, int i, int j, Map<Integer, Object> titleMap, List<String> titles, List<Map<String, Object>> rowList){
-        CellContentReader.CellContentInfo cellInfo = CellContentReader.getCellContentInfo(cell);
-        if(null != cellInfo){
-            //创建存储单元格数据数组
-            Map<String, Object> cellMap = new HashMap<>();
-            String cellAddress = cellInfo.getCellAddress();//单元格地址
-            String fromString = cellInfo.getFormatString();//格式字符串
-            Object formattedValue = cellInfo.getFormattedValue();//格式化后的值
-            Object value = cellInfo.getValue();//原始值
-            log.info("{}：第{}行, 第{}列, {}(value) {}(formattedValue), {}(formattedValue.toString), {}(fromString), {}(cellAddress)", sheetName, i, j, value, formattedValue, null == formattedValue ? "formattedValue is null" : formattedValue.toString(), fromString, cellAddress);
-            if(null != formattedValue && formattedValue != "" && !"".equals(formattedValue)) {
-                if(i == 0){//判断为第一行标题行（默认第一行为标题行，如标题行占用多行须另外处理）
-                    titles.add(formattedValue.toString());
-                    titleMap.put(Integer.valueOf(j), formattedValue);
-                }else {//遍历其他内容行
-                    Object cellValue = titleMap.get(Integer.valueOf(j));
-                    if(null != cellValue){
-                        cellMap.put(cellValue.toString(), formattedValue);
-                    }
+    private ExcelSheetModal toExcelSheetModal(int sheetIndex, String sheetName, List<String> titles, SheetTable table){
+        ExcelSheetModal sheet = new ExcelSheetModal();
+        sheet.setSheetIndex(sheetIndex);
+        sheet.setSheetName(sheetName);
+        sheet.setTitles(titles);
+        sheet.setTable(table);
+        return sheet;
+    }
+
+    /**
+     * file.monitor.excel.sheet-filter 为空时读取所有工作表，否则只读取名称匹配该正则的工作表
+     */
+    private Predicate<String> getSheetFilter(){
+        if(null == sheetFilter || sheetFilter.isEmpty()){
+            return name -> true;
+        }
+        Pattern pattern = Pattern.compile(sheetFilter);
+        return name -> pattern.matcher(name).matches();
+    }
+
+    /**
+     * 并行解析工作表的线程池，第一次使用时创建
+     */
+    private ForkJoinPool getSheetPool(){
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        if(threads <= 1){
+            return null;
+        }
+        ForkJoinPool pool = sheetPool;
+        if(null == pool){
+            synchronized (this){
+                pool = sheetPool;
+                if(null == pool){
+                    pool = new ForkJoinPool(threads);
+                    sheetPool = pool;
                 }
-                rowList.add(cellMap);
             }
         }
+        return pool;
     }
 
-    private ExcelReadModal processToExcelModal(ExcelReadModal modal, List<String> titles, List<List<Map<String, Object>>> dataList) {
-        modal.setTitles(titles);
-        modal.setDataList(dataList);
+    @PreDestroy
+    public void shutdown(){
+        if(null != sheetPool){
+            sheetPool.shutdown();
+        }
+    }
+
+    /**
+     * titles、dataList 保留第一个读取的工作表的内容，sheets 为所有读取的工作表
+     */
+    private ExcelReadModal processToExcelModal(ExcelReadModal modal, List<ExcelSheetModal> sheets) {
+        if(!sheets.isEmpty()){
+            modal.setTitles(sheets.get(0).getTitles());
+            modal.setDataList(sheets.get(0).getDataList());
+        }
+        modal.setSheets(sheets);
         return modal;
     }
 
@@ -0,0 +1,461 @@
+package com.example.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 把工作表的行直接绑定为对象
+ * 类的字段及其 MethodHandle（优先使用 setter）按类缓存；每个工作表读完标题行后按标题解析一次 列 -> 字段 的绑定，
+ * 之后每个单元格按列下标直接调用绑定的 MethodHandle，数字、布尔以基本类型传入，不经过 Map，也不逐行反射；
+ * 默认第一行为标题行，没有任何值的行不输出
+ */
+public class RowBinder<T> implements CellVisitor {
+
+    private static final Map<Class<?>, BeanBinding<?>> BEAN_BINDINGS = new ConcurrentHashMap<>();
+
+    //字符串转日期时接受的格式（与读取时日期的输出格式一致）
+    private static final DateTimeFormatter DATE_PARSER = DateTimeFormatter.ofPattern("yyyy-MM-dd[ HH:mm:ss]");
+
+    private final BeanBinding<T> beanBinding;
+    private final Consumer<? super T> consumer;
+    private final List<String> columnTitles = new ArrayList<>();  //按列下标的标题
+    private FieldBinding[] plan;    //按列下标的字段绑定，没有对应字段的列为null
+    private boolean date1904;       //当前工作簿是否使用1904日期系统
+    private T bean;
+    private boolean hasValue;
+
+    public RowBinder(Class<T> type, Consumer<? super T> consumer) {
+        this.beanBinding = beanBinding(type);
+        this.consumer = consumer;
+    }
+
+    @Override
+    public void startSheet(String sheetName, boolean date1904) {
+        this.date1904 = date1904;
+        plan = null;
+        columnTitles.clear();
+    }
+
+    @Override
+    public void startRow(int rowIndex) {
+        if (rowIndex == 0) {
+            return;
+        }
+        if (plan == null) {
+            plan = beanBinding.plan(columnTitles);
+        }
+        bean = null;
+        hasValue = false;
+    }
+
+    @Override
+    public void onString(int rowIndex, int columnIndex, CharSequence value) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, value.toString());
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null && value.length() != 0) {
+            binding.setString(bean(), value.toString(), rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    @Override
+    public void onNumeric(int rowIndex, int columnIndex, double value, CellFormatCache.CellFormat format) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, format.formatNumber(value));
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null) {
+            binding.setNumber(bean(), value, date1904, format, rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    @Override
+    public void onDate(int rowIndex, int columnIndex, double excelDate, boolean date1904, CellFormatCache.CellFormat format) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, CellContentReader.formatDate(excelDate, date1904, format));
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null) {
+            binding.setDate(bean(), excelDate, date1904, format, rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    @Override
+    public void onBoolean(int rowIndex, int columnIndex, boolean value) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, CellContentReader.formatBoolean(value));
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null) {
+            binding.setBoolean(bean(), value, date1904, rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    /**
+     * 错误值只绑定到字符串字段，其他类型的字段保持默认值
+     */
+    @Override
+    public void onError(int rowIndex, int columnIndex, byte errorCode, boolean formula) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, CellContentReader.formatError(errorCode, formula));
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null && binding.kind == Kind.STRING) {
+            binding.setString(bean(), CellContentReader.formatError(errorCode, formula), rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    /**
+     * 没有计算结果的公式只绑定到字符串字段
+     */
+    @Override
+    public void onFormula(int rowIndex, int columnIndex, String formula) {
+        if (rowIndex == 0) {
+            setTitle(columnIndex, formula);
+            return;
+        }
+        FieldBinding binding = binding(columnIndex);
+        if (binding != null && binding.kind == Kind.STRING && !formula.isEmpty()) {
+            binding.setString(bean(), formula, rowIndex, columnIndex);
+            hasValue = true;
+        }
+    }
+
+    @Override
+    public void endRow(int rowIndex) {
+        if (rowIndex != 0 && hasValue) {
+            consumer.accept(bean);
+        }
+        bean = null;
+    }
+
+    private void setTitle(int columnIndex, String title) {
+        while (columnTitles.size() <= columnIndex) {
+            columnTitles.add(null);
+        }
+        columnTitles.set(columnIndex, title.trim());
+    }
+
+    private FieldBinding binding(int columnIndex) {
+        return plan != null && columnIndex < plan.length ? plan[columnIndex] : null;
+    }
+
+    private T bean() {
+        if (bean == null) {
+            bean = beanBinding.newInstance();
+        }
+        return bean;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> BeanBinding<T> beanBinding(Class<T> type) {
+        return (BeanBinding<T>) BEAN_BINDINGS.computeIfAbsent(type, BeanBinding::new);
+    }
+
+    /**
+     * 字段的目标类型
+     */
+    private enum Kind {
+        STRING, DOUBLE, FLOAT, LONG, INT, SHORT, BOOLEAN, BIG_DECIMAL, DATE, LOCAL_DATE, LOCAL_DATE_TIME
+    }
+
+    /**
+     * 类的绑定信息：无参构造器和可绑定字段，每个类只解析一次
+     */
+    private static class BeanBinding<T> {
+        private final Class<T> type;
+        private final MethodHandle constructor;
+        private final List<FieldBinding> fields = new ArrayList<>();
+
+        BeanBinding(Class<T> type) {
+            this.type = type;
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            try {
+                Constructor<T> declared = type.getDeclaredConstructor();
+                declared.setAccessible(true);
+                this.constructor = lookup.unreflectConstructor(declared).asType(MethodType.methodType(Object.class));
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                throw new IllegalArgumentException("绑定类需要无参构造器: " + type.getName(), e);
+            }
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    int modifiers = field.getModifiers();
+                    Kind kind = kindOf(field.getType());
+                    if (kind == null || Modifier.isStatic(modifiers) || Modifier.isFinal(modifiers)) {
+                        continue;
+                    }
+                    fields.add(new FieldBinding(field, kind, setter(lookup, field, kind)));
+                }
+            }
+        }
+
+        /**
+         * 按标题解析 列 -> 字段 的绑定（每个工作表一次）
+         * 先放入指定列下标的字段（多个字段指定同一列时报错），其余字段再按标题匹配剩下的列
+         */
+        FieldBinding[] plan(List<String> columnTitles) {
+            int columns = columnTitles.size();
+            for (FieldBinding field : fields) {
+                columns = Math.max(columns, field.index + 1);
+            }
+            FieldBinding[] plan = new FieldBinding[columns];
+            for (FieldBinding field : fields) {
+                if (field.index >= 0) {
+                    if (plan[field.index] != null) {
+                        throw new IllegalArgumentException(String.format("字段 %s 与 %s 指定了同一列下标 %d",
+                                plan[field.index].field, field.field, field.index));
+                    }
+                    plan[field.index] = field;
+                }
+            }
+            for (FieldBinding field : fields) {
+                if (field.index >= 0) {
+                    continue;
+                }
+                for (int i = 0; i < columnTitles.size(); i++) {
+                    String title = columnTitles.get(i);
+                    if (title != null && plan[i] == null && field.matches(title)) {
+                        plan[i] = field;
+                        break;
+                    }
+                }
+            }
+            return plan;
+        }
+
+        @SuppressWarnings("unchecked")
+        T newInstance() {
+            try {
+                return (T) (Object) constructor.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("创建绑定对象失败: " + type.getName(), e);
+            }
+        }
+
+        /**
+         * 优先使用与字段同类型的 setter，没有时直接写字段；统一为 (Object, 基本类型或Object)void
+         */
+        private static MethodHandle setter(MethodHandles.Lookup lookup, Field field, Kind kind) {
+            String name = field.getName();
+            MethodHandle handle;
+            try {
+                Method method = field.getDeclaringClass().getMethod(
+                        "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1), field.getType());
+                handle = lookup.unreflect(method);
+            } catch (NoSuchMethodException | IllegalAccessException e) {
+                try {
+                    field.setAccessible(true);
+                    handle = lookup.unreflectSetter(field);
+                } catch (IllegalAccessException | RuntimeException ex) {
+                    throw new IllegalArgumentException("无法写入字段: " + field, ex);
+                }
+            }
+            return handle.asType(MethodType.methodType(void.class, Object.class, parameterType(kind)));
+        }
+
+        private static Class<?> parameterType(Kind kind) {
+            switch (kind) {
+                case DOUBLE: return double.class;
+                case FLOAT: return float.class;
+                case LONG: return long.class;
+                case INT: return int.class;
+                case SHORT: return short.class;
+                case BOOLEAN: return boolean.class;
+                default: return Object.class;
+            }
+        }
+
+        private static Kind kindOf(Class<?> type) {
+            if (type == String.class) return Kind.STRING;
+            if (type == double.class || type == Double.class) return Kind.DOUBLE;
+            if (type == float.class || type == Float.class) return Kind.FLOAT;
+            if (type == long.class || type == Long.class) return Kind.LONG;
+            if (type == int.class || type == Integer.class) return Kind.INT;
+            if (type == short.class || type == Short.class) return Kind.SHORT;
+            if (type == boolean.class || type == Boolean.class) return Kind.BOOLEAN;
+            if (type == BigDecimal.class) return Kind.BIG_DECIMAL;
+            if (type == Date.class) return Kind.DATE;
+            if (type == LocalDate.class) return Kind.LOCAL_DATE;
+            if (type == LocalDateTime.class) return Kind.LOCAL_DATE_TIME;
+            return null;
+        }
+    }
+
+    /**
+     * 单个字段的绑定：按单元格的值类型转换为字段类型后调用 MethodHandle
+     */
+    private static class FieldBinding {
+        private final Field field;
+        private final Kind kind;
+        private final MethodHandle setter;
+        private final String title;     //注解中的标题，没有时为null
+        private final int index;        //注解中的列下标，没有时为-1
+
+        FieldBinding(Field field, Kind kind, MethodHandle setter) {
+            this.field = field;
+            this.kind = kind;
+            this.setter = setter;
+            ExcelColumn column = field.getAnnotation(ExcelColumn.class);
+            this.title = column == null || column.value().isEmpty() ? null : column.value();
+            this.index = column == null ? -1 : column.index();
+        }
+
+        boolean matches(String columnTitle) {
+            return title != null ? title.equals(columnTitle) : field.getName().equalsIgnoreCase(columnTitle);
+        }
+
+        /**
+         * @param date1904 工作簿是否使用1904日期系统，日期类型的字段按日期序列值转换
+         */
+        void setNumber(Object bean, double value, boolean date1904, CellFormatCache.CellFormat format, int row, int column) {
+            try {
+                switch (kind) {
+                    case STRING: setter.invokeExact(bean, (Object) format.formatNumber(value)); break;
+                    case DOUBLE: setter.invokeExact(bean, value); break;
+                    case FLOAT: setter.invokeExact(bean, (float) value); break;
+                    case LONG: setter.invokeExact(bean, Math.round(value)); break;
+                    case INT: setter.invokeExact(bean, (int) Math.round(value)); break;
+                    case SHORT: setter.invokeExact(bean, (short) Math.round(value)); break;
+                    case BOOLEAN: setter.invokeExact(bean, value != 0); break;
+                    case BIG_DECIMAL: setter.invokeExact(bean, (Object) BigDecimal.valueOf(value)); break;
+                    default: setDate(bean, value, date1904, format, row, column);
+                }
+            } catch (RuntimeException e) {
+                throw conversionFailed(value, row, column, e);
+            } catch (Throwable e) {
+                throw invokeFailed(e);
+            }
+        }
+
+        void setDate(Object bean, double excelDate, boolean date1904, CellFormatCache.CellFormat format, int row, int column) {
+            try {
+                switch (kind) {
+                    case STRING:
+                        setter.invokeExact(bean, (Object) CellContentReader.formatDate(excelDate, date1904, format));
+                        break;
+                    case DATE:
+                        setter.invokeExact(bean, (Object) DateUtil.getJavaDate(excelDate, date1904));
+                        break;
+                    case LOCAL_DATE:
+                        setter.invokeExact(bean, (Object) DateUtil.getLocalDateTime(excelDate, date1904).toLocalDate());
+                        break;
+                    case LOCAL_DATE_TIME:
+                        setter.invokeExact(bean, (Object) DateUtil.getLocalDateTime(excelDate, date1904));
+                        break;
+                    default:
+                        //数字类型的字段取日期的序列值
+                        setNumber(bean, excelDate, date1904, format, row, column);
+                }
+            } catch (RuntimeException e) {
+                throw conversionFailed(excelDate, row, column, e);
+            } catch (Throwable e) {
+                throw invokeFailed(e);
+            }
+        }
+
+        void setBoolean(Object bean, boolean value, boolean date1904, int row, int column) {
+            try {
+                switch (kind) {
+                    case STRING: setter.invokeExact(bean, (Object) CellContentReader.formatBoolean(value)); break;
+                    case BOOLEAN: setter.invokeExact(bean, value); break;
+                    default: setNumber(bean, value ? 1 : 0, date1904, CellFormatCache.get(null), row, column);
+                }
+            } catch (RuntimeException e) {
+                throw conversionFailed(value, row, column, e);
+            } catch (Throwable e) {
+                throw invokeFailed(e);
+            }
+        }
+
+        void setString(Object bean, String value, int row, int column) {
+            try {
+                switch (kind) {
+                    case STRING:
+                        setter.invokeExact(bean, (Object) value);
+                        break;
+                    case BOOLEAN:
+                        String text = value.trim();
+                        setter.invokeExact(bean, "TRUE".equalsIgnoreCase(text) || "1".equals(text));
+                        break;
+                    case BIG_DECIMAL:
+                        setter.invokeExact(bean, (Object) new BigDecimal(value.trim()));
+                        break;
+                    case DATE:
+                        LocalDateTime dateTime = parseDateTime(value);
+                        setter.invokeExact(bean, (Object) Date.from(dateTime.atZone(ZoneId.systemDefault()).toInstant()));
+                        break;
+                    case LOCAL_DATE:
+                        setter.invokeExact(bean, (Object) parseDateTime(value).toLocalDate());
+                        break;
+                    case LOCAL_DATE_TIME:
+                        setter.invokeExact(bean, (Object) parseDateTime(value));
+                        break;
+                    default:
+                        //其余只有数字类型的字段，不会按日期序列值转换
+                        setNumber(bean, Double.parseDouble(value.trim()), false, CellFormatCache.get(null), row, column);
+                }
+            } catch (RuntimeException e) {
+                throw conversionFailed(value, row, column, e);
+            } catch (Throwable e) {
+                throw invokeFailed(e);
+            }
+        }
+
+        private static LocalDateTime parseDateTime(String value) {
+            return LocalDateTime.from(DATE_PARSER.parseBest(value.trim(), LocalDateTime::from,
+                    temporal -> LocalDate.from(temporal).atStartOfDay()));
+        }
+
+        private IllegalArgumentException conversionFailed(Object value, int row, int column, RuntimeException e) {
+            if (e instanceof RowBindingException) {
+                return (RowBindingException) e;
+            }
+            return new RowBindingException(String.format("第%d行, 第%d列(%s) 的值 %s 无法绑定到字段 %s",
+                    row, column, CellVisitor.address(row, column), value, field), e);
+        }
+
+        private IllegalStateException invokeFailed(Throwable e) {
+            return new IllegalStateException("写入字段失败: " + field, e);
+        }
+    }
+
+    /**
+     * 单元格的值无法转换为字段类型
+     */
+    public static class RowBindingException extends IllegalArgumentException {
+        private static final long serialVersionUID = 1L;
+
+        RowBindingException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.utils;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * 按固定长度分块读取文本
+ * 只使用一个固定大小的字符缓冲区，内存占用与文件大小无关；代理对不会被拆到两个块中
+ */
+public class TextChunkReader implements Closeable {
+    private final Reader reader;
+    private final char[] buffer;
+    private int carry = -1;
+
+    /**
+     * @param inputStream 文本内容
+     * @param charset     字符集，无法解码的字节替换为替代字符
+     * @param chunkSize   每块的字符数（至少2）
+     */
+    public TextChunkReader(InputStream inputStream, Charset charset, int chunkSize) {
+        this.reader = new InputStreamReader(inputStream, charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        this.buffer = new char[Math.max(chunkSize, 2)];
+    }
+
+    /**
+     * 读取下一块，读完时返回null
+     */
+    public String next() throws IOException {
+        int length = 0;
+        if (carry >= 0) {
+            buffer[length++] = (char) carry;
+            carry = -1;
+        }
+        while (length < buffer.length) {
+            int read = reader.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        if (length == 0) {
+            return null;
+        }
+        if (length == buffer.length && Character.isHighSurrogate(buffer[length - 1])) {
+            //代理对的前半部分留到下一块
+            carry = buffer[--length];
+        }
+        return new String(buffer, 0, length);
+    }
+
+    /**
+     * 是否还有未读取的内容
+     */
+    public boolean hasMore() throws IOException {
+        if (carry >= 0) {
+            return true;
+        }
+        int c = reader.read();
+        if (c < 0) {
+            return false;
+        }
+        carry = c;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+}
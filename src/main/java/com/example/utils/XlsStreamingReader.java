@@ -0,0 +1,289 @@
+package com.example.utils;
+
+import org.apache.poi.hssf.eventusermodel.AbortableHSSFListener;
+import org.apache.poi.hssf.eventusermodel.FormatTrackingHSSFListener;
+import org.apache.poi.hssf.eventusermodel.HSSFEventFactory;
+import org.apache.poi.hssf.eventusermodel.HSSFRequest;
+import org.apache.poi.hssf.eventusermodel.HSSFUserException;
+import org.apache.poi.hssf.record.BOFRecord;
+import org.apache.poi.hssf.record.BoolErrRecord;
+import org.apache.poi.hssf.record.BoundSheetRecord;
+import org.apache.poi.hssf.record.DateWindow1904Record;
+import org.apache.poi.hssf.record.EOFRecord;
+import org.apache.poi.hssf.record.FormulaRecord;
+import org.apache.poi.hssf.record.LabelRecord;
+import org.apache.poi.hssf.record.LabelSSTRecord;
+import org.apache.poi.hssf.record.MulRKRecord;
+import org.apache.poi.hssf.record.NumberRecord;
+import org.apache.poi.hssf.record.RKRecord;
+import org.apache.poi.hssf.record.Record;
+import org.apache.poi.hssf.record.RowRecord;
+import org.apache.poi.hssf.record.SSTRecord;
+import org.apache.poi.hssf.record.StringRecord;
+import org.apache.poi.poifs.filesystem.POIFSFileSystem;
+import org.apache.poi.ss.usermodel.CellType;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+
+/**
+ * 基于HSSF事件模型的.xls流式读取
+ * 按记录流依次处理，单元格按类型以原始值回调 CellVisitor，内存占用与行数无关（共享字符串表除外）；
+ * 不再需要后续工作表时停止，公式单元格使用文件中缓存的计算结果
+ */
+public class XlsStreamingReader {
+
+    /**
+     * 读取第一个工作表
+     */
+    public static void readFirstSheet(File file, CellVisitor handler) throws IOException {
+        readSheets(file, (index, name) -> index == 0 ? handler : null);
+    }
+
+    /**
+     * 读取多个工作表（记录流是顺序的，各工作表依次处理）
+     * @param handlers 按工作表下标和名称返回回调，返回null时跳过该工作表
+     */
+    public static void readSheets(File file, BiFunction<Integer, String, CellVisitor> handlers) throws IOException {
+        try (POIFSFileSystem fs = new POIFSFileSystem(file, true)) {
+            HSSFRequest request = new HSSFRequest();
+            request.addListenerForAllRecords(new RecordListener(handlers));
+            new HSSFEventFactory().abortableProcessWorkbookEvents(request, fs);
+        } catch (HSSFUserException e) {
+            throw new IOException("解析xls文件失败: " + file, e);
+        }
+    }
+
+    /**
+     * 记录流处理：工作簿全局记录中取共享字符串、格式、工作表名称，选中的工作表中取行和单元格
+     */
+    private static class RecordListener extends AbortableHSSFListener {
+        private static final short CONTINUE = 0;
+        private static final short STOP = 1;
+
+        private final BiFunction<Integer, String, CellVisitor> handlers;
+        private final FormatTrackingHSSFListener formats = new FormatTrackingHSSFListener(record -> { });
+        private final List<BoundSheetRecord> boundSheets = new ArrayList<>();
+        //已声明（有RowRecord）但还没有输出的行，按32行一块出现在单元格之前
+        private final TreeSet<Integer> declaredRows = new TreeSet<>();
+        private final NumberRecord xfLookup = new NumberRecord();
+        private SSTRecord sst;
+        private boolean date1904;
+        private int depth;          //BOF嵌套层数（工作表中可能嵌入图表子流）
+        private String[] sheetNames;
+        private CellVisitor[] sheetHandlers;
+        private int lastSelected = -1;     //最后一个需要读取的工作表下标
+        private int sheetIndex = -1;
+        private CellVisitor handler;   //当前工作表的回调，跳过的工作表为null
+        private int currentRow = -1;
+        private boolean rowOpen;
+        private FormulaRecord pendingFormula;  //结果为字符串的公式，值在随后的StringRecord中
+
+        RecordListener(BiFunction<Integer, String, CellVisitor> handlers) {
+            this.handlers = handlers;
+        }
+
+        @Override
+        public short abortableProcessRecord(Record record) {
+            formats.processRecordInternally(record);
+            switch (record.getSid()) {
+                case BOFRecord.sid:
+                    if (depth++ == 0 && ((BOFRecord) record).getType() != BOFRecord.TYPE_WORKBOOK) {
+                        startSheet(((BOFRecord) record).getType());
+                    }
+                    return CONTINUE;
+                case EOFRecord.sid:
+                    if (--depth == 0 && sheetIndex >= 0) {
+                        if (handler != null) {
+                            endRows(Integer.MAX_VALUE);
+                            handler = null;
+                        }
+                        //之后没有需要读取的工作表时停止
+                        return sheetIndex < lastSelected ? CONTINUE : STOP;
+                    }
+                    return CONTINUE;
+                case BoundSheetRecord.sid:
+                    boundSheets.add((BoundSheetRecord) record);
+                    return CONTINUE;
+                case SSTRecord.sid:
+                    sst = (SSTRecord) record;
+                    return CONTINUE;
+                case DateWindow1904Record.sid:
+                    date1904 = ((DateWindow1904Record) record).getWindowing() == 1;
+                    return CONTINUE;
+                default:
+            }
+            if (handler == null || depth != 1) {
+                return CONTINUE;
+            }
+            processSheetRecord(record);
+            return CONTINUE;
+        }
+
+        private void startSheet(int type) {
+            if (sheetHandlers == null) {
+                selectSheets();
+            }
+            sheetIndex++;
+            declaredRows.clear();
+            currentRow = -1;
+            rowOpen = false;
+            pendingFormula = null;
+            handler = null;
+            if (type == BOFRecord.TYPE_WORKSHEET && sheetIndex < sheetHandlers.length) {
+                handler = sheetHandlers[sheetIndex];
+                if (handler != null) {
+                    handler.startSheet(sheetNames[sheetIndex], date1904);
+                }
+            }
+        }
+
+        /**
+         * 工作簿全局记录读完后（第一个工作表开始时）确定需要读取的工作表
+         */
+        private void selectSheets() {
+            BoundSheetRecord[] ordered = BoundSheetRecord.orderByBofPosition(boundSheets);
+            sheetNames = new String[ordered.length];
+            sheetHandlers = new CellVisitor[ordered.length];
+            for (int i = 0; i < ordered.length; i++) {
+                sheetNames[i] = ordered[i].getSheetname();
+                sheetHandlers[i] = handlers.apply(i, sheetNames[i]);
+                if (sheetHandlers[i] != null) {
+                    lastSelected = i;
+                }
+            }
+        }
+
+        private void processSheetRecord(Record record) {
+            switch (record.getSid()) {
+                case RowRecord.sid:
+                    int rowNumber = ((RowRecord) record).getRowNumber();
+                    if (rowNumber > currentRow) {
+                        declaredRows.add(rowNumber);
+                    }
+                    break;
+                case LabelSSTRecord.sid:
+                    LabelSSTRecord labelSST = (LabelSSTRecord) record;
+                    beginRow(labelSST.getRow());
+                    handler.onString(labelSST.getRow(), labelSST.getColumn(),
+                            sst == null ? "" : sst.getString(labelSST.getSSTIndex()).getString());
+                    break;
+                case LabelRecord.sid:
+                    LabelRecord label = (LabelRecord) record;
+                    beginRow(label.getRow());
+                    handler.onString(label.getRow(), label.getColumn(), label.getValue());
+                    break;
+                case NumberRecord.sid:
+                    numeric((NumberRecord) record);
+                    break;
+                case RKRecord.sid:
+                    RKRecord rk = (RKRecord) record;
+                    numeric(rk.getRow(), rk.getColumn(), rk.getXFIndex(), rk.getRKNumber());
+                    break;
+                case MulRKRecord.sid:
+                    MulRKRecord mulRK = (MulRKRecord) record;
+                    for (int i = 0; i < mulRK.getNumColumns(); i++) {
+                        numeric(mulRK.getRow(), mulRK.getFirstColumn() + i, mulRK.getXFAt(i), mulRK.getRKNumberAt(i));
+                    }
+                    break;
+                case BoolErrRecord.sid:
+                    BoolErrRecord boolErr = (BoolErrRecord) record;
+                    beginRow(boolErr.getRow());
+                    if (boolErr.isBoolean()) {
+                        handler.onBoolean(boolErr.getRow(), boolErr.getColumn(), boolErr.getBooleanValue());
+                    } else {
+                        handler.onError(boolErr.getRow(), boolErr.getColumn(), boolErr.getErrorValue(), false);
+                    }
+                    break;
+                case FormulaRecord.sid:
+                    formula((FormulaRecord) record);
+                    break;
+                case StringRecord.sid:
+                    if (pendingFormula != null) {
+                        beginRow(pendingFormula.getRow());
+                        handler.onString(pendingFormula.getRow(), pendingFormula.getColumn(), ((StringRecord) record).getString());
+                        pendingFormula = null;
+                    }
+                    break;
+                default:
+            }
+        }
+
+        private void formula(FormulaRecord formula) {
+            int row = formula.getRow();
+            int column = formula.getColumn();
+            CellType resultType = formula.getCachedResultTypeEnum();
+            switch (resultType) {
+                case NUMERIC:
+                    numeric(row, column, formula.getXFIndex(), formula.getValue());
+                    break;
+                case STRING:
+                    if (formula.hasCachedResultString()) {
+                        pendingFormula = formula;
+                    } else {
+                        beginRow(row);
+                        handler.onString(row, column, "");
+                    }
+                    break;
+                case BOOLEAN:
+                    beginRow(row);
+                    handler.onBoolean(row, column, formula.getCachedBooleanValue());
+                    break;
+                case ERROR:
+                    beginRow(row);
+                    handler.onError(row, column, (byte) formula.getCachedErrorValue(), true);
+                    break;
+                default:
+            }
+        }
+
+        private void numeric(NumberRecord number) {
+            numeric(number.getRow(), number.getColumn(), number.getXFIndex(), number.getValue());
+        }
+
+        /**
+         * 数字格式按扩展格式（XF）下标取得（格式监听器只接受单元格记录，复用同一个记录对象查询）
+         */
+        private void numeric(int row, int column, short xfIndex, double value) {
+            beginRow(row);
+            xfLookup.setXFIndex(xfIndex);
+            int formatIndex = formats.getFormatIndex(xfLookup);
+            CellContentReader.visitNumeric(row, column, value, formatIndex, formats.getFormatString(formatIndex), date1904, handler);
+        }
+
+        /**
+         * 单元格所在行变化时结束上一行，并输出其间声明过但没有单元格的行
+         */
+        private void beginRow(int row) {
+            if (rowOpen && row == currentRow) {
+                return;
+            }
+            endRows(row);
+            declaredRows.remove(row);
+            handler.startRow(row);
+            currentRow = row;
+            rowOpen = true;
+        }
+
+        /**
+         * 结束当前行，并输出下标小于 nextRow 的已声明空行
+         */
+        private void endRows(int nextRow) {
+            if (rowOpen) {
+                handler.endRow(currentRow);
+                rowOpen = false;
+            }
+            while (!declaredRows.isEmpty() && declaredRows.first() < nextRow) {
+                int emptyRow = declaredRows.pollFirst();
+                handler.startRow(emptyRow);
+                handler.endRow(emptyRow);
+                currentRow = emptyRow;
+            }
+        }
+
+    }
+}
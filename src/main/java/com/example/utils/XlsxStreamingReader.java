@@ -0,0 +1,372 @@
+package com.example.utils;
+
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.usermodel.FormulaError;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.apache.poi.xssf.model.StylesTable;
+import org.apache.poi.xssf.usermodel.XSSFCellStyle;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.BiFunction;
+
+/**
+ * 基于SAX事件模型的.xlsx流式读取
+ * 以只读方式打开文件（ZIP随机访问，不整体读入内存），逐行解析工作表XML，多个工作表可并行解析，
+ * 单元格按类型以原始值回调 CellVisitor，内存占用与行数无关（共享字符串表除外）；
+ * 公式单元格使用文件中缓存的计算结果
+ */
+public class XlsxStreamingReader {
+
+    /**
+     * 读取第一个工作表
+     */
+    public static void readFirstSheet(File file, CellVisitor handler) throws IOException {
+        readSheets(file, (index, name) -> index == 0 ? handler : null, null);
+    }
+
+    /**
+     * 读取多个工作表，每个工作表的XML是独立的部件，可以并行解析
+     * @param handlers 按工作表下标和名称返回回调，返回null时跳过该工作表；并行时每个工作表的回调只在一个线程中调用
+     * @param pool     并行解析使用的线程池，为null时依次解析
+     */
+    public static void readSheets(File file, BiFunction<Integer, String, CellVisitor> handlers, ForkJoinPool pool)
+            throws IOException {
+        OPCPackage pkg = null;
+        try {
+            pkg = OPCPackage.open(file, PackageAccess.READ);
+            XSSFReader reader = new XSSFReader(pkg);
+            ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(pkg, false);
+            CellFormats formats = new CellFormats(reader.getStylesTable());
+            boolean date1904 = isDate1904(reader);
+            List<SheetTask> tasks = new ArrayList<>();
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) reader.getSheetsData();
+            for (int index = 0; sheets.hasNext(); index++) {
+                //只取部件，不在此处读取内容
+                sheets.next().close();
+                CellVisitor handler = handlers.apply(index, sheets.getSheetName());
+                if (handler != null) {
+                    tasks.add(new SheetTask(sheets.getSheetPart(), sheets.getSheetName(), handler, sharedStrings, formats, date1904));
+                }
+            }
+            if (pool == null || tasks.size() < 2) {
+                for (SheetTask task : tasks) {
+                    task.parse();
+                }
+            } else {
+                pool.invoke(new RecursiveAction() {
+                    @Override
+                    protected void compute() {
+                        invokeAll(tasks);
+                    }
+                });
+                for (SheetTask task : tasks) {
+                    task.rethrow();
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new IOException("解析xlsx文件失败: " + file, e);
+        } finally {
+            //只读打开的包用 revert 释放，close 用于保存
+            if (pkg != null) {
+                pkg.revert();
+            }
+        }
+    }
+
+    private static void parse(InputStream inputStream, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader xmlReader = XMLHelper.newXMLReader();
+        xmlReader.setContentHandler(handler);
+        xmlReader.parse(new InputSource(inputStream));
+    }
+
+    /**
+     * 读取 workbook.xml 中的 workbookPr@date1904
+     */
+    private static boolean isDate1904(XSSFReader reader)
+            throws IOException, OpenXML4JException, SAXException, ParserConfigurationException {
+        final boolean[] date1904 = {false};
+        try (InputStream workbook = reader.getWorkbookData()) {
+            parse(workbook, new DefaultHandler() {
+                @Override
+                public void startElement(String uri, String localName, String qName, Attributes attributes) {
+                    if ("workbookPr".equals(localName)) {
+                        String value = attributes.getValue("date1904");
+                        date1904[0] = "1".equals(value) || "true".equalsIgnoreCase(value);
+                    }
+                }
+            });
+        }
+        return date1904[0];
+    }
+
+    /**
+     * 单个工作表的解析任务
+     */
+    private static class SheetTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final PackagePart part;
+        private final String sheetName;
+        private final CellVisitor handler;
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final CellFormats formats;
+        private final boolean date1904;
+        private Exception failure;
+
+        SheetTask(PackagePart part, String sheetName, CellVisitor handler, ReadOnlySharedStringsTable sharedStrings,
+                  CellFormats formats, boolean date1904) {
+            this.part = part;
+            this.sheetName = sheetName;
+            this.handler = handler;
+            this.sharedStrings = sharedStrings;
+            this.formats = formats;
+            this.date1904 = date1904;
+        }
+
+        @Override
+        protected void compute() {
+            try {
+                parse();
+            } catch (Exception e) {
+                failure = e;
+            }
+        }
+
+        void parse() throws IOException, SAXException, ParserConfigurationException {
+            try (InputStream sheet = part.getInputStream()) {
+                handler.startSheet(sheetName, date1904);
+                XlsxStreamingReader.parse(sheet, new SheetHandler(sharedStrings, formats, date1904, handler));
+            }
+        }
+
+        void rethrow() throws IOException, SAXException, ParserConfigurationException {
+            if (failure instanceof IOException) {
+                throw (IOException) failure;
+            } else if (failure instanceof SAXException) {
+                throw (SAXException) failure;
+            } else if (failure instanceof ParserConfigurationException) {
+                throw (ParserConfigurationException) failure;
+            } else if (failure != null) {
+                throw new IOException("解析工作表失败: " + sheetName, failure);
+            }
+        }
+    }
+
+    /**
+     * 样式下标对应的数字格式，打开文件时取出一次，并行解析时各线程只读共享
+     */
+    private static class CellFormats {
+        private final short[] formatIndexes;
+        private final String[] formatStrings;
+
+        CellFormats(StylesTable styles) {
+            int count = styles == null ? 0 : styles.getNumCellStyles();
+            formatIndexes = new short[count];
+            formatStrings = new String[count];
+            for (int i = 0; i < count; i++) {
+                XSSFCellStyle style = styles.getStyleAt(i);
+                if (style != null) {
+                    formatIndexes[i] = style.getDataFormat();
+                    formatStrings[i] = style.getDataFormatString();
+                }
+            }
+        }
+
+        /**
+         * 没有样式下标或下标无效时使用默认样式（下标0）
+         */
+        int resolve(String styleIndex) {
+            int index = styleIndex == null ? 0 : Integer.parseInt(styleIndex);
+            return index < formatIndexes.length ? index : 0;
+        }
+
+        short getFormatIndex(int index) {
+            return index < formatIndexes.length ? formatIndexes[index] : 0;
+        }
+
+        String getFormatString(int index) {
+            return index < formatStrings.length ? formatStrings[index] : null;
+        }
+    }
+
+    /**
+     * 工作表XML解析：sheetData 下的 row、c、v、f、is/t
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final CellFormats formats;
+        private final boolean date1904;
+        private final CellVisitor handler;
+        private final StringBuilder value = new StringBuilder();
+        private final StringBuilder formula = new StringBuilder();
+
+        private int rowIndex = -1;
+        private int columnIndex;
+        private String cellType;
+        private String styleIndex;
+        private boolean hasValue;
+        private boolean hasFormula;
+        private boolean inValue;
+        private boolean inFormula;
+        private boolean inInlineText;
+        private boolean inPhonetic;
+
+        SheetHandler(ReadOnlySharedStringsTable sharedStrings, CellFormats formats, boolean date1904, CellVisitor handler) {
+            this.sharedStrings = sharedStrings;
+            this.formats = formats;
+            this.date1904 = date1904;
+            this.handler = handler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    String r = attributes.getValue("r");
+                    rowIndex = r != null ? Integer.parseInt(r) - 1 : rowIndex + 1;
+                    columnIndex = -1;
+                    handler.startRow(rowIndex);
+                    break;
+                case "c":
+                    String cellAddress = attributes.getValue("r");
+                    columnIndex = cellAddress != null ? parseColumn(cellAddress) : columnIndex + 1;
+                    cellType = attributes.getValue("t");
+                    styleIndex = attributes.getValue("s");
+                    value.setLength(0);
+                    formula.setLength(0);
+                    hasValue = false;
+                    hasFormula = false;
+                    break;
+                case "v":
+                    inValue = true;
+                    hasValue = true;
+                    break;
+                case "f":
+                    inFormula = true;
+                    hasFormula = true;
+                    break;
+                case "rPh":
+                    inPhonetic = true;
+                    break;
+                case "t":
+                    //内联字符串（含富文本的各段），不含注音
+                    if ("inlineStr".equals(cellType) && !inPhonetic) {
+                        inInlineText = true;
+                        hasValue = true;
+                    }
+                    break;
+                default:
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (inValue || inInlineText) {
+                value.append(ch, start, length);
+            } else if (inFormula) {
+                formula.append(ch, start, length);
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                    inValue = false;
+                    break;
+                case "f":
+                    inFormula = false;
+                    break;
+                case "t":
+                    inInlineText = false;
+                    break;
+                case "rPh":
+                    inPhonetic = false;
+                    break;
+                case "c":
+                    endCell();
+                    break;
+                case "row":
+                    handler.endRow(rowIndex);
+                    break;
+                default:
+            }
+        }
+
+        /**
+         * 按单元格类型回调，空单元格（只有样式）不回调
+         */
+        private void endCell() {
+            int style = formats.resolve(styleIndex);
+            if (!hasValue) {
+                if (hasFormula) {
+                    handler.onFormula(rowIndex, columnIndex, formula.toString());
+                }
+                return;
+            }
+            if (cellType == null || "n".equals(cellType)) {
+                if (value.length() == 0) {
+                    return;
+                }
+                CellContentReader.visitNumeric(rowIndex, columnIndex, Double.parseDouble(value.toString()),
+                        formats.getFormatIndex(style), formats.getFormatString(style), date1904, handler);
+                return;
+            }
+            switch (cellType) {
+                case "s":
+                    String shared = sharedStrings.getItemAt(Integer.parseInt(value.toString().trim())).getString();
+                    handler.onString(rowIndex, columnIndex, shared);
+                    break;
+                case "b":
+                    handler.onBoolean(rowIndex, columnIndex, value.length() == 1 ? value.charAt(0) == '1'
+                            : "true".equalsIgnoreCase(value.toString()));
+                    break;
+                case "e":
+                    byte errorCode;
+                    try {
+                        errorCode = FormulaError.forString(value.toString()).getCode();
+                    } catch (IllegalArgumentException e) {
+                        errorCode = FormulaError.NA.getCode();
+                    }
+                    handler.onError(rowIndex, columnIndex, errorCode, hasFormula);
+                    break;
+                default:
+                    //inlineStr、str 及未知类型按字符串处理，直接传递缓冲区
+                    handler.onString(rowIndex, columnIndex, value);
+            }
+        }
+
+        /**
+         * 单元格地址（如 AB12）中的列下标
+         */
+        private static int parseColumn(String cellAddress) {
+            int column = 0;
+            for (int i = 0; i < cellAddress.length(); i++) {
+                char c = cellAddress.charAt(i);
+                if (c < 'A' || c > 'Z') {
+                    break;
+                }
+                column = column * 26 + (c - 'A' + 1);
+            }
+            return column - 1;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.utils.modal;
+
+import com.example.utils.Base64Reader;
+import com.example.utils.FileAccess;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * 以Base64编码保存的文件内容来源
+ * 不在内存中保存内容，写入数据库时由 Base64FileContentTypeHandler 流式读取文件并编码
+ * 只读取抽取时大小范围内的内容，与计算摘要的范围一致；打开的文件在语句执行后由调用方 close 关闭
+ */
+@Getter
+public class Base64FileContent implements Closeable {
+    private final Path path;      //文件路径
+    private final long size;      //抽取时的文件大小（字节）
+    private FileChannel channel;
+    private Reader reader;
+
+    public Base64FileContent(Path path, long size) {
+        this.path = path;
+        this.size = size;
+    }
+
+    /**
+     * 打开 [0, size) 范围的Base64字符流，重复绑定（如更新失败后改为新增）时从头重新读取
+     */
+    public synchronized Reader openReader() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+        closeReader();
+        reader = new Base64Reader(FileAccess.openStream(channel, 0, size));
+        return reader;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            closeReader();
+        } finally {
+            if (channel != null) {
+                channel.close();
+                channel = null;
+            }
+        }
+    }
+
+    private void closeReader() throws IOException {
+        if (reader != null) {
+            Reader current = reader;
+            reader = null;
+            current.close();
+        }
+    }
+}
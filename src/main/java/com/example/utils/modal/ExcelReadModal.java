@@ -7,6 +7,27 @@ import java.util.Map;
 
 @Data
 public class ExcelReadModal {
-    private List<String> titles;
-    private List<List<Map<String, Object>>> dataList;
+    private List<String> titles;                        //第一个读取的工作表的标题
+    private List<List<Map<String, Object>>> dataList;   //第一个读取的工作表的内容
+    private List<ExcelSheetModal> sheets;               //所有读取的工作表（按工作表顺序）
+
+    /**
+     * 只含工作表名称和行列数的摘要，不生成内容行，用于日志
+     */
+    public String summary() {
+        if (sheets == null) {
+            return "[]";
+        }
+        StringBuilder builder = new StringBuilder("[");
+        for (ExcelSheetModal sheet : sheets) {
+            if (builder.length() > 1) {
+                builder.append(", ");
+            }
+            SheetTable table = sheet.getTable();
+            builder.append(sheet.getSheetName())
+                    .append('(').append(table == null ? 0 : table.getRowCount())
+                    .append('x').append(table == null ? 0 : table.getColumnCount()).append(')');
+        }
+        return builder.append(']').toString();
+    }
 }
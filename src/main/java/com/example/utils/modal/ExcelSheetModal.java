@@ -0,0 +1,24 @@
+package com.example.utils.modal;
+
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 单个工作表的读取结果
+ */
+@Data
+public class ExcelSheetModal {
+    private int sheetIndex;                             //工作表下标（从0开始）
+    private String sheetName;                           //工作表名称
+    private List<String> titles;                        //标题行，只有标题行时为null
+    private SheetTable table;                           //内容行（列式存储），只有标题行时为null
+
+    /**
+     * 内容行的 行 -> [{标题: 格式化值}] 视图，只有标题行时为null
+     */
+    public List<List<Map<String, Object>>> getDataList() {
+        return null == table ? null : table.asRows();
+    }
+}
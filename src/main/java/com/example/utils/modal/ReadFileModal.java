@@ -7,4 +7,6 @@ public class ReadFileModal {
     private String readInstructions;        //读取说明
     private ExcelReadModal excelReadModal;  //读取Excel内容
     private String otherContent;            //读取其他文件内容
+    private Base64FileContent binaryContent; //二进制内容来源，写入数据库时流式编码
+    private Integer chunkSize;              //全文分块保存时每块的长度（字符），为null时不分块保存
 }
@@ -0,0 +1,282 @@
+package com.example.utils.modal;
+
+import com.example.utils.CellFormatCache;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 工作表内容的列式存储（不含标题行）
+ * 每列一组基本类型数组：类型标记、值（数字为double的位、日期为毫秒时间戳、字符串为字典编号）和数字格式编号，
+ * 字符串在整个表内去重，格式化值在读取时按格式生成；asRows() 提供与原来相同的 行 -> [{标题: 格式化值}] 视图
+ */
+public class SheetTable {
+    public static final byte NULL = 0;     //空单元格
+    public static final byte NUMBER = 1;   //数字
+    public static final byte DATE = 2;     //日期
+    public static final byte STRING = 3;   //字符串（含布尔、错误、公式文本的格式化值）
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private Column[] columns = new Column[0];
+    private int rowCount;
+    private final List<String> strings = new ArrayList<>();
+    private final List<CellFormatCache.CellFormat> formats = new ArrayList<>();
+    //只在写入时使用，finish 后释放
+    private Map<String, Integer> stringCodes = new HashMap<>();
+    private Map<CellFormatCache.CellFormat, Integer> formatCodes = new IdentityHashMap<>();
+
+    /**
+     * 单列的数组，按行下标存取，容量按需倍增
+     */
+    private static class Column {
+        private String title;
+        private byte[] types;
+        private long[] values;
+        private short[] formatIds;
+
+        Column(int capacity) {
+            types = new byte[capacity];
+            values = new long[capacity];
+            formatIds = new short[capacity];
+        }
+
+        void ensureCapacity(int capacity) {
+            if (capacity > types.length) {
+                int newCapacity = Math.max(capacity, types.length * 2);
+                types = Arrays.copyOf(types, newCapacity);
+                values = Arrays.copyOf(values, newCapacity);
+                formatIds = Arrays.copyOf(formatIds, newCapacity);
+            }
+        }
+
+        void trim(int rowCount) {
+            if (types.length != rowCount) {
+                types = Arrays.copyOf(types, rowCount);
+                values = Arrays.copyOf(values, rowCount);
+                formatIds = Arrays.copyOf(formatIds, rowCount);
+            }
+        }
+    }
+
+    // ---------------- 写入 ----------------
+
+    /**
+     * 设置列标题（标题行中的单元格）
+     */
+    public void setTitle(int columnIndex, String title) {
+        column(columnIndex).title = title;
+    }
+
+    /**
+     * 开始新的一行，之后的单元格写入这一行
+     */
+    public void startRow() {
+        rowCount++;
+    }
+
+    public void setNumber(int columnIndex, double value, CellFormatCache.CellFormat format) {
+        set(columnIndex, NUMBER, Double.doubleToRawLongBits(value), format);
+    }
+
+    /**
+     * @param epochMillis 日期的毫秒时间戳
+     */
+    public void setDate(int columnIndex, long epochMillis, CellFormatCache.CellFormat format) {
+        set(columnIndex, DATE, epochMillis, format);
+    }
+
+    public void setString(int columnIndex, String value) {
+        Integer code = stringCodes.get(value);
+        if (code == null) {
+            code = strings.size();
+            strings.add(value);
+            stringCodes.put(value, code);
+        }
+        set(columnIndex, STRING, code, null);
+    }
+
+    /**
+     * 写入完成：数组收缩到实际行数，释放写入时的索引
+     */
+    public void finish() {
+        for (Column column : columns) {
+            if (column != null) {
+                column.trim(rowCount);
+            }
+        }
+        stringCodes = null;
+        formatCodes = null;
+    }
+
+    private void set(int columnIndex, byte type, long value, CellFormatCache.CellFormat format) {
+        int row = rowCount - 1;
+        Column column = column(columnIndex);
+        column.ensureCapacity(rowCount);
+        column.types[row] = type;
+        column.values[row] = value;
+        column.formatIds[row] = format == null ? 0 : formatId(format);
+    }
+
+    private Column column(int columnIndex) {
+        if (columnIndex >= columns.length) {
+            columns = Arrays.copyOf(columns, Math.max(columnIndex + 1, columns.length * 2));
+        }
+        Column column = columns[columnIndex];
+        if (column == null) {
+            column = new Column(Math.max(rowCount, INITIAL_CAPACITY));
+            columns[columnIndex] = column;
+        }
+        return column;
+    }
+
+    /**
+     * 格式编号从1开始，0表示没有格式
+     */
+    private short formatId(CellFormatCache.CellFormat format) {
+        Integer id = formatCodes.get(format);
+        if (id == null) {
+            formats.add(format);
+            id = formats.size();
+            formatCodes.put(format, id);
+        }
+        return (short) id.intValue();
+    }
+
+    // ---------------- 读取 ----------------
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    /**
+     * 列数（最大列下标 + 1）
+     */
+    public int getColumnCount() {
+        for (int i = columns.length - 1; i >= 0; i--) {
+            if (columns[i] != null) {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * 列标题，没有标题时为null
+     */
+    public String getTitle(int columnIndex) {
+        Column column = getColumn(columnIndex);
+        return column == null ? null : column.title;
+    }
+
+    /**
+     * 单元格类型：NULL、NUMBER、DATE、STRING
+     */
+    public byte getType(int rowIndex, int columnIndex) {
+        Column column = getColumn(columnIndex);
+        return column == null || rowIndex >= column.types.length ? NULL : column.types[rowIndex];
+    }
+
+    public boolean isNull(int rowIndex, int columnIndex) {
+        return getType(rowIndex, columnIndex) == NULL;
+    }
+
+    /**
+     * 数字单元格的值
+     */
+    public double getDouble(int rowIndex, int columnIndex) {
+        checkType(rowIndex, columnIndex, NUMBER);
+        return Double.longBitsToDouble(columns[columnIndex].values[rowIndex]);
+    }
+
+    /**
+     * 日期单元格的毫秒时间戳
+     */
+    public long getEpochMillis(int rowIndex, int columnIndex) {
+        checkType(rowIndex, columnIndex, DATE);
+        return columns[columnIndex].values[rowIndex];
+    }
+
+    /**
+     * 字符串单元格的值
+     */
+    public String getString(int rowIndex, int columnIndex) {
+        checkType(rowIndex, columnIndex, STRING);
+        return strings.get((int) columns[columnIndex].values[rowIndex]);
+    }
+
+    /**
+     * 格式化后的值（与逐行读取时相同），空单元格为null
+     */
+    public String getFormattedValue(int rowIndex, int columnIndex) {
+        byte type = getType(rowIndex, columnIndex);
+        if (type == NULL) {
+            return null;
+        }
+        Column column = columns[columnIndex];
+        long value = column.values[rowIndex];
+        switch (type) {
+            case NUMBER:
+                return format(column, rowIndex).formatNumber(Double.longBitsToDouble(value));
+            case DATE:
+                return format(column, rowIndex).formatDate(new Date(value));
+            default:
+                return strings.get((int) value);
+        }
+    }
+
+    /**
+     * 行视图：每行为该行非空单元格按列顺序的 {标题: 格式化值}，没有标题的列为空Map；按需生成，不占用额外存储
+     */
+    public List<List<Map<String, Object>>> asRows() {
+        return new AbstractList<List<Map<String, Object>>>() {
+            @Override
+            public List<Map<String, Object>> get(int rowIndex) {
+                if (rowIndex < 0 || rowIndex >= rowCount) {
+                    throw new IndexOutOfBoundsException("行下标越界: " + rowIndex);
+                }
+                List<Map<String, Object>> row = new ArrayList<>();
+                for (int columnIndex = 0; columnIndex < columns.length; columnIndex++) {
+                    String formattedValue = getFormattedValue(rowIndex, columnIndex);
+                    if (formattedValue != null) {
+                        String title = columns[columnIndex].title;
+                        row.add(title != null ? Collections.singletonMap(title, formattedValue) : Collections.emptyMap());
+                    }
+                }
+                return row;
+            }
+
+            @Override
+            public int size() {
+                return rowCount;
+            }
+        };
+    }
+
+    private Column getColumn(int columnIndex) {
+        return columnIndex < 0 || columnIndex >= columns.length ? null : columns[columnIndex];
+    }
+
+    private CellFormatCache.CellFormat format(Column column, int rowIndex) {
+        int id = column.formatIds[rowIndex] & 0xFFFF;
+        return id == 0 ? CellFormatCache.get(null) : formats.get(id - 1);
+    }
+
+    private void checkType(int rowIndex, int columnIndex, byte type) {
+        if (getType(rowIndex, columnIndex) != type) {
+            throw new IllegalStateException("单元格类型不是 " + type + ": 第" + rowIndex + "行, 第" + columnIndex + "列");
+        }
+    }
+
+    @Override
+    public String toString() {
+        return asRows().toString();
+    }
+}
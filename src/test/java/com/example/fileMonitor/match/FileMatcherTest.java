@@ -0,0 +1,172 @@
+package com.example.fileMonitor.match;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FileMatcherTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void defaultRuleMatchesStatisticsWorkbooks() {
+        FileMatcher matcher = matcher(new FileMatchProperties());
+
+        assertTrue(matcher.matches(Paths.get("/data/月度统计表.xlsx")));
+        assertFalse(matcher.matches(Paths.get("/data/月度统计表.xls")));
+        assertFalse(matcher.matches(Paths.get("/data/报表.xlsx")));
+    }
+
+    @Test
+    void extensionNameGlobAndRegexRules() {
+        FileMatcher matcher = matcher(properties(
+                Arrays.asList(ext("xlsx, .CSV"), glob("*.log"), glob("README"), regex(".*\\.bak"), regex("report-\\d+\\.txt")),
+                Arrays.asList(glob("~$*"))));
+
+        assertTrue(matcher.matches(Paths.get("/data/a.XLSX")));
+        assertTrue(matcher.matches(Paths.get("/data/b.csv")));
+        assertTrue(matcher.matches(Paths.get("/data/app.log")));
+        assertTrue(matcher.matches(Paths.get("/data/README")));
+        assertTrue(matcher.matches(Paths.get("/data/old.bak")));
+        assertTrue(matcher.matches(Paths.get("/data/report-12.txt")));
+        assertFalse(matcher.matches(Paths.get("/data/report-x.txt")));
+        assertFalse(matcher.matches(Paths.get("/data/.xlsx")));
+        //排除规则优先
+        assertFalse(matcher.matches(Paths.get("/data/~$a.xlsx")));
+    }
+
+    @Test
+    void regexRulesDoNotShareGroupsOrFlags() {
+        FileMatcher matcher = matcher(properties(
+                Arrays.asList(regex("(?i)[a-z]+\\.tmp"), regex("(a)(b)\\d*\\.txt"), regex("(x)\\1\\.dat"), glob("*[0-9].LOG")),
+                null));
+
+        assertTrue(matcher.matches(Paths.get("/data/ABC.tmp")));
+        //\1 指向本条规则的第一个分组
+        assertTrue(matcher.matches(Paths.get("/data/xx.dat")));
+        assertFalse(matcher.matches(Paths.get("/data/xa.dat")));
+        assertTrue(matcher.matches(Paths.get("/data/ab1.txt")));
+        //(?i) 只作用于所在的规则
+        assertTrue(matcher.matches(Paths.get("/data/a1.LOG")));
+        assertFalse(matcher.matches(Paths.get("/data/a1.log")));
+    }
+
+    @Test
+    void pathGlobMatchesFullPath() {
+        FileMatcher matcher = matcher(properties(Arrays.asList(glob("**/报表/*.csv")), null));
+
+        assertTrue(matcher.matches(Paths.get("/data/报表/a.csv")));
+        assertTrue(matcher.matches(Paths.get("/data/2024/报表/a.csv")));
+        assertFalse(matcher.matches(Paths.get("/data/报表/sub/a.csv")));
+        assertFalse(matcher.matches(Paths.get("/data/其他/a.csv")));
+    }
+
+    @Test
+    void globToRegexHandlesClassesAndAlternatives() {
+        assertTrue("a1.txt".matches(CompiledRules.globToRegex("a?.{txt,csv}")));
+        assertTrue("ab.csv".matches(CompiledRules.globToRegex("a?.{txt,csv}")));
+        assertFalse("ab.xml".matches(CompiledRules.globToRegex("a?.{txt,csv}")));
+        assertTrue("b.log".matches(CompiledRules.globToRegex("[!a]*.log")));
+        assertFalse("a.log".matches(CompiledRules.globToRegex("[!a]*.log")));
+        assertFalse("x/a.log".matches(CompiledRules.globToRegex("*.log")));
+        assertTrue("x/y/a.log".matches(CompiledRules.globToRegex("**/a.log")));
+        assertTrue("a.log".matches(CompiledRules.globToRegex("**/a.log")));
+    }
+
+    @Test
+    void matchNameReportsWhenAttributesAreNeeded() {
+        FileMatchRule sized = ext("log");
+        sized.setMinSize(10L);
+        CompiledRules rules = new CompiledRules(Arrays.asList(sized, glob("*.txt")));
+
+        assertEquals(CompiledRules.MATCH, rules.matchName("a.txt", "/a.txt"));
+        assertEquals(CompiledRules.NEEDS_ATTRIBUTES, rules.matchName("a.log", "/a.log"));
+        assertEquals(CompiledRules.NO_MATCH, rules.matchName("a.csv", "/a.csv"));
+    }
+
+    @Test
+    void sizeAndAgeRulesReadAttributes() throws IOException {
+        FileMatchRule rule = ext("log");
+        rule.setMinSize(4L);
+        rule.setMinAge(60_000L);
+        FileMatcher matcher = matcher(properties(Arrays.asList(rule), null));
+
+        Path small = Files.write(dir.resolve("small.log"), new byte[2]);
+        Path fresh = Files.write(dir.resolve("fresh.log"), new byte[8]);
+        Path old = Files.write(dir.resolve("old.log"), new byte[8]);
+        Files.setLastModifiedTime(small, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+        Files.setLastModifiedTime(old, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+
+        assertFalse(matcher.matches(small));
+        assertFalse(matcher.matches(fresh));
+        assertTrue(matcher.matches(old));
+        //属性相关的结果不缓存：文件变旧后重新判断为匹配
+        Files.setLastModifiedTime(fresh, FileTime.fromMillis(System.currentTimeMillis() - 120_000));
+        assertTrue(matcher.matches(fresh));
+        //名称可能匹配，已删除的文件按名称判断
+        assertTrue(matcher.mayMatch(dir.resolve("deleted.log")));
+        assertFalse(matcher.mayMatch(dir.resolve("deleted.txt")));
+    }
+
+    @Test
+    void excludeRuleWithAttributes() throws IOException {
+        FileMatchRule large = glob("*");
+        large.setMinSize(5L);
+        FileMatcher matcher = matcher(properties(Arrays.asList(ext("dat")), Arrays.asList(large)));
+
+        Path small = Files.write(dir.resolve("a.dat"), new byte[2]);
+        Path big = Files.write(dir.resolve("b.dat"), new byte[10]);
+
+        assertTrue(matcher.matches(small));
+        assertFalse(matcher.matches(big));
+        assertTrue(matcher.mayMatch(big));
+    }
+
+    private static FileMatcher matcher(FileMatchProperties properties) {
+        FileMatcher matcher = new FileMatcher();
+        ReflectionTestUtils.setField(matcher, "fileMatchProperties", properties);
+        matcher.compile();
+        return matcher;
+    }
+
+    private static FileMatchProperties properties(List<FileMatchRule> include, List<FileMatchRule> exclude) {
+        FileMatchProperties properties = new FileMatchProperties();
+        properties.getInclude().clear();
+        if (include != null) {
+            properties.getInclude().addAll(include);
+        }
+        if (exclude != null) {
+            properties.getExclude().addAll(exclude);
+        }
+        return properties;
+    }
+
+    private static FileMatchRule glob(String glob) {
+        FileMatchRule rule = new FileMatchRule();
+        rule.setGlob(glob);
+        return rule;
+    }
+
+    private static FileMatchRule regex(String regex) {
+        return FileMatchRule.regex(regex);
+    }
+
+    private static FileMatchRule ext(String ext) {
+        FileMatchRule rule = new FileMatchRule();
+        rule.setExt(ext);
+        return rule;
+    }
+}
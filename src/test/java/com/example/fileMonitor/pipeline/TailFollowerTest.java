@@ -0,0 +1,101 @@
+package com.example.fileMonitor.pipeline;
+
+import com.example.fileMonitor.modal.FileSnapshot;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class TailFollowerTest {
+
+    @TempDir
+    Path dir;
+
+    private final TailFollower tailFollower = new TailFollower();
+    private Path log;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(tailFollower, "maxLine", 16L);
+        log = dir.resolve("app.log");
+    }
+
+    @Test
+    void appendsOnlyCompleteLines() throws IOException {
+        FileSnapshot previous = write("line1\n");
+        append("line2\nline3\npart");
+
+        assertEquals(18, tailFollower.plan(log, previous, snapshot("key")));
+    }
+
+    @Test
+    void waitsForPartialLine() throws IOException {
+        FileSnapshot previous = write("line1\n");
+        append("partial");
+
+        assertEquals(previous.getSize(), tailFollower.plan(log, previous, snapshot("key")));
+        //大小未变化
+        assertEquals(previous.getSize(), tailFollower.plan(log, previous, previous));
+    }
+
+    @Test
+    void rotatedOrTruncatedFileIsReadAgain() throws IOException {
+        FileSnapshot previous = write("line1\nline2\n");
+
+        assertEquals(TailFollower.FULL, tailFollower.plan(log, previous, snapshot("other")));
+        write("x\n");
+        assertEquals(TailFollower.FULL, tailFollower.plan(log, previous, snapshot("key")));
+    }
+
+    @Test
+    void unknownFileKeyIsNotTreatedAsRotation() throws IOException {
+        FileSnapshot previous = write("line1\n");
+        previous.setFileKey(null);
+        append("line2\n");
+
+        assertEquals(12, tailFollower.plan(log, previous, snapshot("key")));
+    }
+
+    @Test
+    void overlongLineIsCutAtCharacterBoundary() throws IOException {
+        FileSnapshot previous = write("a\n");
+        //16 个 ASCII 字符后跟一个 3 字节汉字的前两个字节
+        byte[] han = "汉".getBytes(StandardCharsets.UTF_8);
+        append("0123456789abcdef");
+        Files.write(log, new byte[]{han[0], han[1]}, StandardOpenOption.APPEND);
+
+        assertEquals(18, tailFollower.plan(log, previous, snapshot("key")));
+        //字符写完整后可以采集到末尾
+        Files.write(log, new byte[]{han[2]}, StandardOpenOption.APPEND);
+        assertEquals(21, tailFollower.plan(log, previous, snapshot("key")));
+    }
+
+    @Test
+    void shortLineWithoutNewlineKeepsWaiting() throws IOException {
+        FileSnapshot previous = write("a\n");
+        append("0123456789");
+
+        assertEquals(2, tailFollower.plan(log, previous, snapshot("key")));
+    }
+
+    private FileSnapshot write(String content) throws IOException {
+        Files.write(log, content.getBytes(StandardCharsets.UTF_8));
+        return snapshot("key");
+    }
+
+    private void append(String content) throws IOException {
+        Files.write(log, content.getBytes(StandardCharsets.UTF_8), StandardOpenOption.APPEND);
+    }
+
+    private FileSnapshot snapshot(String fileKey) throws IOException {
+        return new FileSnapshot(Files.size(log), Files.getLastModifiedTime(log).toMillis(), fileKey);
+    }
+}
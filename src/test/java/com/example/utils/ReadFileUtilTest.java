@@ -0,0 +1,184 @@
+package com.example.utils;
+
+import com.example.utils.modal.ExcelReadModal;
+import com.example.utils.modal.ExcelSheetModal;
+import org.apache.poi.hssf.usermodel.HSSFWorkbook;
+import org.apache.poi.ss.usermodel.CellStyle;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ReadFileUtilTest {
+    private static final int ROWS = 300;
+
+    @TempDir
+    Path dir;
+
+    private final ReadFileUtil readFileUtil = new ReadFileUtil();
+
+    @AfterEach
+    void shutdown() {
+        readFileUtil.shutdown();
+    }
+
+    @Test
+    void xlsxStreamingMatchesWorkbook() throws IOException {
+        assertParity(write(new XSSFWorkbook(), "book.xlsx"), "xlsx");
+    }
+
+    @Test
+    void xlsStreamingMatchesWorkbook() throws IOException {
+        assertParity(write(new HSSFWorkbook(), "book.xls"), "xls");
+    }
+
+    @Test
+    void readRowsBindsSameBeansInBothModes() throws IOException {
+        for (String type : new String[]{"xlsx", "xls"}) {
+            File file = write("xlsx".equals(type) ? new XSSFWorkbook() : new HSSFWorkbook(), "rows." + type);
+            ReflectionTestUtils.setField(readFileUtil, "sheetFilter", "数据");
+
+            ReflectionTestUtils.setField(readFileUtil, "streamingThreshold", Long.MAX_VALUE);
+            List<Item> dom = readFileUtil.readRows(file, Item.class);
+            ReflectionTestUtils.setField(readFileUtil, "streamingThreshold", 0L);
+            List<Item> streaming = readFileUtil.readRows(file, Item.class);
+
+            assertEquals(dom.toString(), streaming.toString(), type);
+            //标题行之后的空行不输出，稀疏行只绑定有值的列
+            assertEquals(ROWS + 1, dom.size(), type);
+            Item first = dom.get(0);
+            assertEquals("item1", first.name);
+            assertEquals(1, first.quantity);
+            assertEquals(LocalDate.of(2024, 1, 2), first.date);
+            assertEquals(new BigDecimal("1.5"), first.amount);
+            assertEquals(2.0, first.formula);
+            assertEquals(Boolean.FALSE, first.flag);
+            assertEquals("item1-1", first.joined);
+            Item sparse = dom.get(ROWS);
+            assertEquals("sparse", sparse.name);
+            assertNull(sparse.date);
+            assertNull(sparse.amount);
+        }
+    }
+
+    private void assertParity(File file, String type) throws IOException {
+        ReflectionTestUtils.setField(readFileUtil, "streamingThreshold", Long.MAX_VALUE);
+        ExcelReadModal dom = readFileUtil.readExcel(file, type, new ExcelReadModal());
+        ReflectionTestUtils.setField(readFileUtil, "streamingThreshold", 0L);
+        ExcelReadModal streaming = readFileUtil.readExcel(file, type, new ExcelReadModal());
+
+        assertEquals(3, dom.getSheets().size());
+        assertEquals(dom.getSheets().size(), streaming.getSheets().size());
+        for (int i = 0; i < dom.getSheets().size(); i++) {
+            ExcelSheetModal expected = dom.getSheets().get(i);
+            ExcelSheetModal actual = streaming.getSheets().get(i);
+            assertEquals(expected.getSheetIndex(), actual.getSheetIndex());
+            assertEquals(expected.getSheetName(), actual.getSheetName());
+            assertEquals(expected.getTitles(), actual.getTitles(), expected.getSheetName());
+            assertEquals(expected.getDataList(), actual.getDataList(), expected.getSheetName());
+        }
+        assertEquals(dom.getTitles(), streaming.getTitles());
+        assertEquals(dom.getDataList(), streaming.getDataList());
+
+        ExcelSheetModal data = dom.getSheets().get(0);
+        assertEquals("[名称, 数量, 日期, 金额, 公式, 布尔, 错误, 串]", data.getTitles().toString());
+        assertEquals("[{名称=item1}, {数量=1}, {日期=2024-01-02 00:00:00}, {金额=1.50}, {公式=2}, {布尔=FALSE}, {错误=公式错误#7}, {串=item1-1}]",
+                data.getDataList().get(0).toString());
+        //只有标题行的工作表没有内容
+        assertNull(dom.getSheets().get(2).getDataList());
+    }
+
+    /**
+     * 生成测试工作簿：数据表（含日期、千分位金额、公式、布尔、错误值、空行和稀疏行）、第二个小表和只有标题行的表
+     */
+    private File write(Workbook workbook, String fileName) throws IOException {
+        CellStyle dateStyle = workbook.createCellStyle();
+        dateStyle.setDataFormat(workbook.createDataFormat().getFormat("yyyy-mm-dd"));
+        CellStyle amountStyle = workbook.createCellStyle();
+        amountStyle.setDataFormat(workbook.createDataFormat().getFormat("#,##0.00"));
+
+        Sheet data = workbook.createSheet("数据");
+        String[] titles = {"名称", "数量", "日期", "金额", "公式", "布尔", "错误", "串"};
+        Row titleRow = data.createRow(0);
+        for (int i = 0; i < titles.length; i++) {
+            titleRow.createCell(i).setCellValue(titles[i]);
+        }
+        for (int r = 1; r <= ROWS; r++) {
+            Row row = data.createRow(r);
+            int excelRow = r + 1;
+            row.createCell(0).setCellValue("item" + r);
+            row.createCell(1).setCellValue(r);
+            row.createCell(2).setCellValue(LocalDateTime.of(2024, 1, 1, 0, 0).plusDays(r));
+            row.getCell(2).setCellStyle(dateStyle);
+            row.createCell(3).setCellValue(r * 1.5);
+            row.getCell(3).setCellStyle(amountStyle);
+            row.createCell(4).setCellFormula("B" + excelRow + "*2");
+            row.createCell(5).setCellValue(r % 2 == 0);
+            row.createCell(6).setCellFormula("1/0");
+            row.createCell(7).setCellFormula("A" + excelRow + "&\"-\"&B" + excelRow);
+        }
+        //空行和只有部分单元格的稀疏行
+        data.createRow(ROWS + 1);
+        Row sparse = data.createRow(ROWS + 3);
+        sparse.createCell(0).setCellValue("sparse");
+        sparse.createCell(5).setCellValue(true);
+
+        Sheet other = workbook.createSheet("other");
+        other.createRow(0).createCell(0).setCellValue("key");
+        other.getRow(0).createCell(1).setCellValue("value");
+        other.createRow(1).createCell(0).setCellValue("a");
+        other.getRow(1).createCell(1).setCellValue(1234567.891);
+        other.createRow(2).createCell(1).setCellValue("x");
+
+        workbook.createSheet("title only").createRow(0).createCell(0).setCellValue("标题");
+
+        //写入公式的缓存结果，流式读取使用缓存结果
+        workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+        Path path = dir.resolve(fileName);
+        try (OutputStream out = Files.newOutputStream(path)) {
+            workbook.write(out);
+        } finally {
+            workbook.close();
+        }
+        return path.toFile();
+    }
+
+    static class Item {
+        @ExcelColumn("名称")
+        private String name;
+        @ExcelColumn("数量")
+        private int quantity;
+        @ExcelColumn("日期")
+        private LocalDate date;
+        @ExcelColumn("金额")
+        private BigDecimal amount;
+        @ExcelColumn("公式")
+        private double formula;
+        @ExcelColumn("布尔")
+        private Boolean flag;
+        @ExcelColumn(index = 7)
+        private String joined;
+
+        @Override
+        public String toString() {
+            return name + "," + quantity + "," + date + "," + amount + "," + formula + "," + flag + "," + joined;
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.example.utils;
+
+import org.apache.poi.ss.usermodel.DateUtil;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RowBinderTest {
+    private static final CellFormatCache.CellFormat NO_FORMAT = CellFormatCache.get(null);
+    private static final CellFormatCache.CellFormat DATE_FORMAT = CellFormatCache.get("yyyy-mm-dd");
+
+    @Test
+    void bindsByAnnotationTitleAndFieldName() {
+        List<Order> orders = new ArrayList<>();
+        RowBinder<Order> binder = new RowBinder<>(Order.class, orders::add);
+        binder.startSheet("orders", false);
+        titles(binder, "编号", "AMOUNT", "客户", "日期", "备注", "paid");
+        binder.startRow(1);
+        binder.onString(1, 0, "A-1");
+        binder.onNumeric(1, 1, 12.5, NO_FORMAT);
+        binder.onString(1, 2, "张三");
+        binder.onDate(1, 3, 45292, false, DATE_FORMAT);
+        binder.onNumeric(1, 4, 3, NO_FORMAT);
+        binder.onBoolean(1, 5, true);
+        binder.endRow(1);
+
+        assertEquals(1, orders.size());
+        Order order = orders.get(0);
+        assertEquals("A-1", order.code);
+        assertEquals(new BigDecimal("12.5"), order.amount);
+        assertEquals("张三", order.customer);
+        assertEquals(LocalDate.of(2024, 1, 1), order.date);
+        //数字绑定到字符串字段时按格式输出
+        assertEquals("3", order.remark);
+        assertTrue(order.paid);
+    }
+
+    @Test
+    void convertsBetweenCellAndFieldTypes() {
+        List<Types> rows = new ArrayList<>();
+        RowBinder<Types> binder = new RowBinder<>(Types.class, rows::add);
+        binder.startSheet("types", false);
+        titles(binder, "count", "total", "flag", "amount", "day", "time", "when", "text");
+        binder.startRow(1);
+        binder.onString(1, 0, " 42 ");
+        binder.onNumeric(1, 1, 2.6, NO_FORMAT);
+        binder.onString(1, 2, "TRUE");
+        binder.onString(1, 3, "1.10");
+        binder.onString(1, 4, "2024-02-03");
+        binder.onString(1, 5, "2024-02-03 04:05:06");
+        binder.onNumeric(1, 6, 45292.5, NO_FORMAT);
+        binder.onError(1, 7, (byte) 7, true);
+        binder.endRow(1);
+        binder.startRow(2);
+        binder.onBoolean(2, 0, true);
+        binder.onError(2, 1, (byte) 7, true);
+        binder.onFormula(2, 7, "SUM(A1:A2)");
+        binder.endRow(2);
+
+        assertEquals(2, rows.size());
+        Types first = rows.get(0);
+        assertEquals(42, first.count);
+        assertEquals(3L, first.total);
+        assertTrue(first.flag);
+        assertEquals(new BigDecimal("1.10"), first.amount);
+        assertEquals(LocalDate.of(2024, 2, 3), first.day);
+        assertEquals(LocalDateTime.of(2024, 2, 3, 4, 5, 6), first.time);
+        assertEquals(DateUtil.getJavaDate(45292.5, false), first.when);
+        assertEquals(CellContentReader.formatError((byte) 7, true), first.text);
+        Types second = rows.get(1);
+        assertEquals(1, second.count);
+        //错误值不绑定到数字字段
+        assertNull(second.total);
+        assertEquals("SUM(A1:A2)", second.text);
+    }
+
+    @Test
+    void numberBoundToDateUsesWorkbookDateSystem() {
+        List<Types> rows = new ArrayList<>();
+        RowBinder<Types> binder = new RowBinder<>(Types.class, rows::add);
+        binder.startSheet("1904", true);
+        titles(binder, "day");
+        binder.startRow(1);
+        binder.onNumeric(1, 0, 0, NO_FORMAT);
+        binder.endRow(1);
+        binder.startSheet("1900", false);
+        titles(binder, "day");
+        binder.startRow(1);
+        binder.onNumeric(1, 0, 1, NO_FORMAT);
+        binder.endRow(1);
+
+        assertEquals(LocalDate.of(1904, 1, 1), rows.get(0).day);
+        assertEquals(LocalDate.of(1900, 1, 1), rows.get(1).day);
+    }
+
+    @Test
+    void indexColumnsTakePrecedenceOverTitles() {
+        List<Indexed> rows = new ArrayList<>();
+        RowBinder<Indexed> binder = new RowBinder<>(Indexed.class, rows::add);
+        binder.startSheet("indexed", false);
+        //第0列的标题也是 name，name 字段只能匹配剩下的第2列
+        titles(binder, "name", "other", "name");
+        binder.startRow(1);
+        binder.onString(1, 0, "by index");
+        binder.onString(1, 1, "ignored");
+        binder.onString(1, 2, "by title");
+        binder.endRow(1);
+
+        assertEquals("by index", rows.get(0).first);
+        assertEquals("by title", rows.get(0).name);
+    }
+
+    @Test
+    void duplicateIndexIsRejected() {
+        RowBinder<Conflicting> binder = new RowBinder<>(Conflicting.class, row -> { });
+        binder.startSheet("conflict", false);
+        titles(binder, "a", "b");
+
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> binder.startRow(1));
+        assertTrue(e.getMessage().contains("同一列下标 1"), e.getMessage());
+    }
+
+    @Test
+    void emptyRowsAreSkippedAndUnknownColumnsIgnored() {
+        List<Order> orders = new ArrayList<>();
+        RowBinder<Order> binder = new RowBinder<>(Order.class, orders::add);
+        binder.startSheet("orders", false);
+        titles(binder, "编号", "未知");
+        binder.startRow(1);
+        binder.onString(1, 1, "not bound");
+        binder.onString(1, 0, "");
+        binder.endRow(1);
+        binder.startRow(2);
+        binder.onString(2, 0, "B-2");
+        binder.endRow(2);
+
+        assertEquals(1, orders.size());
+        assertEquals("B-2", orders.get(0).code);
+        assertFalse(orders.get(0).paid);
+    }
+
+    @Test
+    void conversionErrorReportsCell() {
+        RowBinder<Order> binder = new RowBinder<>(Order.class, row -> { });
+        binder.startSheet("orders", false);
+        titles(binder, "编号", "amount");
+        binder.startRow(1);
+
+        RowBinder.RowBindingException e = assertThrows(RowBinder.RowBindingException.class,
+                () -> binder.onString(1, 1, "x"));
+        assertTrue(e.getMessage().contains("B2"), e.getMessage());
+    }
+
+    private static void titles(RowBinder<?> binder, String... titles) {
+        binder.startRow(0);
+        for (int i = 0; i < titles.length; i++) {
+            binder.onString(0, i, titles[i]);
+        }
+        binder.endRow(0);
+    }
+
+    static class Order {
+        @ExcelColumn("编号")
+        private String code;
+        private BigDecimal amount;
+        @ExcelColumn("客户")
+        private String customer;
+        @ExcelColumn("日期")
+        private LocalDate date;
+        @ExcelColumn(index = 4)
+        private String remark;
+        private boolean paid;
+
+        //有 setter 时通过 setter 写入
+        public void setAmount(BigDecimal amount) {
+            this.amount = amount;
+        }
+    }
+
+    static class Types {
+        private int count;
+        private Long total;
+        private Boolean flag;
+        private BigDecimal amount;
+        private LocalDate day;
+        private LocalDateTime time;
+        private Date when;
+        private String text;
+    }
+
+    static class Indexed {
+        @ExcelColumn(index = 0)
+        private String first;
+        private String name;
+    }
+
+    static class Conflicting {
+        @ExcelColumn(index = 1)
+        private String a;
+        @ExcelColumn(value = "b", index = 1)
+        private String b;
+    }
+}
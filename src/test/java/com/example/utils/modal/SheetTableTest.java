@@ -0,0 +1,97 @@
+package com.example.utils.modal;
+
+import com.example.utils.CellFormatCache;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SheetTableTest {
+
+    @Test
+    void storesValuesAndFormatsOnRead() {
+        CellFormatCache.CellFormat amount = CellFormatCache.get("#,##0.00");
+        CellFormatCache.CellFormat date = CellFormatCache.get("yyyy-mm-dd");
+        long millis = LocalDateTime.of(2024, 3, 5, 8, 30).atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        SheetTable table = new SheetTable();
+        table.setTitle(0, "名称");
+        table.setTitle(1, "金额");
+        table.setTitle(2, "日期");
+        table.setTitle(3, "数量");
+
+        table.startRow();
+        table.setString(0, "a");
+        table.setNumber(1, 1234.5, amount);
+        table.setDate(2, millis, date);
+        table.setNumber(3, 3, null);
+        table.startRow();
+        table.setString(0, "a");
+        table.setNumber(3, 2.25, CellFormatCache.get(null));
+        table.finish();
+
+        assertEquals(2, table.getRowCount());
+        assertEquals(4, table.getColumnCount());
+        assertEquals(SheetTable.STRING, table.getType(0, 0));
+        assertEquals("a", table.getString(1, 0));
+        assertEquals(1234.5, table.getDouble(0, 1));
+        assertEquals(millis, table.getEpochMillis(0, 2));
+        assertEquals("1,234.50", table.getFormattedValue(0, 1));
+        assertEquals("2024-03-05 08:30:00", table.getFormattedValue(0, 2));
+        assertEquals("3", table.getFormattedValue(0, 3));
+        assertEquals("2.25", table.getFormattedValue(1, 3));
+        assertTrue(table.isNull(1, 1));
+        assertNull(table.getFormattedValue(1, 2));
+        //越界的行、列按空单元格处理
+        assertTrue(table.isNull(5, 0));
+        assertTrue(table.isNull(0, 9));
+        assertThrows(IllegalStateException.class, () -> table.getDouble(0, 0));
+    }
+
+    @Test
+    void asRowsSkipsEmptyCellsAndKeepsColumnOrder() {
+        SheetTable table = new SheetTable();
+        table.setTitle(0, "A");
+        table.setTitle(2, "C");
+        table.startRow();
+        table.setString(2, "c1");
+        table.setString(0, "a1");
+        table.startRow();
+        table.startRow();
+        //没有标题的列为空Map
+        table.setString(1, "b3");
+        table.finish();
+
+        List<List<Map<String, Object>>> rows = table.asRows();
+
+        assertEquals(3, rows.size());
+        assertEquals("[{A=a1}, {C=c1}]", rows.get(0).toString());
+        assertEquals("[]", rows.get(1).toString());
+        assertEquals("[{}]", rows.get(2).toString());
+        assertEquals(rows.toString(), table.toString());
+        assertThrows(IndexOutOfBoundsException.class, () -> rows.get(3));
+    }
+
+    @Test
+    void growsColumnsAndDeduplicatesStrings() {
+        SheetTable table = new SheetTable();
+        for (int row = 0; row < 100; row++) {
+            table.startRow();
+            table.setString(row % 5, "v" + (row % 3));
+            table.setNumber(20, row, null);
+        }
+        table.finish();
+
+        assertEquals(100, table.getRowCount());
+        assertEquals(21, table.getColumnCount());
+        assertEquals("v2", table.getFormattedValue(98, 3));
+        assertEquals("99", table.getFormattedValue(99, 20));
+        assertNull(table.getTitle(20));
+    }
+}